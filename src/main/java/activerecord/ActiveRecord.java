@@ -1,17 +1,32 @@
 package activerecord;
 
-import activerecord.annotation.PrimaryKey;
-import com.google.common.base.Stopwatch;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Field;
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main purpose of this class is to managed the database relationship of sub-classes instances.
@@ -120,18 +135,249 @@ import java.util.List;
  */
 public abstract class ActiveRecord<T extends ActiveRecord>
 {
-    /** A single database connection. */
+    /**
+     * A single database connection, shared by all threads, used when no {@linkplain #setDataSource(DataSource) data
+     * source} is configured.
+     */
     public static Connection connection;
 
+    /** Default number of rows sent in a single JDBC batch. */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** Default maximum number of parameters bound to a single statement. */
+    public static final int DEFAULT_MAXIMUM_PARAMETERS = 1000;
+
+    private static volatile int maximumParameters = DEFAULT_MAXIMUM_PARAMETERS;
+
+    private static volatile int fetchSize = 0;
+
+    private static final Set<Class<?>> INTEGRAL_TYPES = new HashSet<Class<?>>( Arrays.asList(
+        Long.class, long.class, Integer.class, int.class, Short.class, short.class, Byte.class, byte.class ) );
+
+    /** Maximum parallelism of a fork-join pool. */
+    private static final int MAXIMUM_SCAN_THREADS = 0x7fff;
+
     @SuppressWarnings("unchecked")
     private Class<T> clazz = (Class<T>) getClass();
 
-    private static final Stopwatch stopwatch = new Stopwatch();
+    /**
+     * Snapshot value of a column left out of a {@linkplain #select(String...) projection}: the column is only updated
+     * once its field is set.
+     */
+    static final Object NOT_LOADED = new Object();
+
+    /**
+     * Column values of this instance as last read from or written to the database, in column order, or
+     * <code>null</code> if unknown. Never modified, only replaced: it may be shared with caches.
+     */
+    private transient Object[] snapshot;
 
     private Logger logger() {
         return LoggerFactory.getLogger(getClass());
     }
 
+    /**
+     * Set the data source every operation borrows its connection from, and gives it back to when done.
+     * <p>
+     *   Borrowing a connection for each operation lets concurrent threads work on distinct connections: use a pooling
+     *   data source, like {@link ConnectionPool}, to keep it cheap.
+     * </p>
+     * @param dataSource The data source to use, or <code>null</code> to use the shared {@link #connection}.
+     */
+    public static void setDataSource(DataSource dataSource) {
+        Connections.setDataSource( dataSource );
+    }
+
+    /**
+     * @return The data source operations borrow their connection from, or <code>null</code> if none is configured.
+     */
+    public static DataSource getDataSource() {
+        return Connections.getDataSource();
+    }
+
+    /**
+     * Run the given work in a transaction, committed when the work returns, rolled back when it throws.
+     * <pre>
+     * ActiveRecord.inTransaction( new Transactional&lt;Void>() {
+     *   public Void execute() throws SQLException {
+     *     group.save();
+     *     contact.setGroupId( group.getId() );
+     *     contact.save();
+     *     return null;
+     *   }
+     * } );
+     * </pre>
+     * <p>
+     *   A connection is bound to the current thread for the duration of the work, so that every {@link #save()},
+     *   {@link #find()} and {@link #delete()} it calls, directly or not, runs on this connection, with auto-commit
+     *   disabled. A transaction started while another one is running on the same thread joins it: it is committed or
+     *   rolled back with the outer one. The connection is borrowed from the {@linkplain #setDataSource(DataSource) data
+     *   source}: the shared {@link #connection} cannot be used, since it would run every thread in the transaction.
+     *   Rows and query results read or written in the transaction are only cached once it is committed. When rolled
+     *   back, the cached rows and query results of the classes written in the transaction, and their instances loaded
+     *   in the {@linkplain Session#current() current session}, are forgotten, and the instances saved in the
+     *   transaction are brought back to their state in the database: saving them again updates, or inserts, them
+     *   again.
+     * </p>
+     * @param work The work to run, on the current thread.
+     * @return The result of the work.
+     * @throws SQLException This may failed, sorry. The transaction is then rolled back.
+     * @throws IllegalStateException When no data source is set, unless joining a running transaction.
+     */
+    public static <R> R inTransaction(Transactional<R> work)
+        throws SQLException
+    {
+        return Transactions.run( Transactions.DEFAULT_ISOLATION, false, work );
+    }
+
+    /**
+     * Run the given work in a transaction of the given isolation level, as {@link #inTransaction(Transactional)} does.
+     * <p>
+     *   The isolation level and the read-only hint of the connection are restored once the transaction is over. Both
+     *   are ignored when joining a running transaction.
+     * </p>
+     * @param isolationLevel One of the <code>Connection.TRANSACTION_*</code> levels, supported by the driver.
+     * @param readOnly Whether the work only reads, so that the driver and database may optimize the transaction.
+     * @param work The work to run, on the current thread.
+     * @return The result of the work.
+     * @throws SQLException This may failed, sorry. The transaction is then rolled back.
+     * @throws IllegalStateException When no data source is set, unless joining a running transaction.
+     */
+    public static <R> R inTransaction(int isolationLevel, boolean readOnly, Transactional<R> work)
+        throws SQLException
+    {
+        return Transactions.run( isolationLevel, readOnly, work );
+    }
+
+    /**
+     * Run the {@linkplain #findAsync() asynchronous operations} on a bounded pool of daemon threads.
+     * <p>
+     *   Operations wait in a queue while all threads are busy, and are rejected when the queue is full, so that a burst
+     *   cannot exhaust memory nor the database. The previous pool, if created this way, is shut down once its
+     *   operations are done. By default, 16 threads run operations queued by up to 1000. See
+     *   {@link Metrics#getAsyncQueueDepth()} and {@link Metrics#getAsyncInFlight()} to tune them.
+     * </p>
+     * @param threads Maximum number of operations running at the same time.
+     * @param queueCapacity Maximum number of operations waiting for a thread, or <code>0</code> to reject operations as
+     * soon as all threads are busy.
+     */
+    public static void setAsyncExecutor(int threads, int queueCapacity) {
+        AsyncExecutor.configure( threads, queueCapacity );
+    }
+
+    /**
+     * Run the {@linkplain #findAsync() asynchronous operations} on the given executor, like a pool of lightweight
+     * threads where the runtime provides them. The executor is never shut down by active records.
+     * @param executor The executor to submit operations to.
+     */
+    public static void setAsyncExecutor(ExecutorService executor) {
+        AsyncExecutor.configure( executor );
+    }
+
+    /**
+     * Enable, resize or disable the cache of prepared statements.
+     * <p>
+     *   Each connection keeps at most <code>size</code> prepared statements, the least recently used one being closed
+     *   to make room for a new one. Statements are reused across {@link #save()}, {@link #find()} and
+     *   {@link #delete()} calls issuing the same SQL. The cache is disabled by default. Statements are only reused
+     *   across operations on the shared {@link #connection} or on a {@link ConnectionPool} data source: other data
+     *   sources close their connections, and so the cached statements, after each operation or transaction.
+     * </p>
+     * @param size Maximum number of cached statements per connection, or <code>0</code> to disable the cache.
+     */
+    public static void setStatementCacheSize(int size) {
+        StatementCache.setMaximumSize( size );
+    }
+
+    /**
+     * Enable, resize or disable the cache of query results.
+     * <p>
+     *   Results of {@link #find()}, {@link #find(int, int)} and {@link #findAfter(Object, int)} are cached by SQL text
+     *   and argument values, and served as new instances on later identical calls. Saving or deleting any instance of a
+     *   class, through active records, invalidates all the cached results of its table. Results are not cached while a
+     *   {@link Session} is open, but may be served from the cache. The cache is disabled by default.
+     * </p>
+     * @param maximumRows Maximum number of cached rows, all results together, or <code>0</code> to disable the cache.
+     * @param timeToLive Time after which a cached result is evicted, or <code>0</code> to keep it as long as possible.
+     * @param unit Unit of <code>timeToLive</code>.
+     */
+    public static void setQueryCache(long maximumRows, long timeToLive, TimeUnit unit) {
+        QueryCache.configure( maximumRows, timeToLive, unit );
+    }
+
+    /**
+     * @return Hit, miss and eviction counts of the cache of query results, or <code>null</code> if it is disabled.
+     */
+    public static CacheStats getQueryCacheStats() {
+        return QueryCache.stats();
+    }
+
+    /**
+     * @return For each cached SQL text, the number of times its prepared statement was reused instead of prepared again.
+     */
+    public static Map<String, Long> getStatementReuseCounts() {
+        return StatementCache.reuseCounts();
+    }
+
+    /**
+     * Read and bind the values of a type with the given converter, instead of the standard one.
+     * <pre>
+     * ActiveRecord.registerConverter( Color.class, new ColumnConverter&lt;Color>() {
+     *   public Color read( ResultSet resultSet, int index ) throws SQLException {
+     *     int rgb = resultSet.getInt( index );
+     *     return resultSet.wasNull() ? null : new Color( rgb );
+     *   }
+     *   public void bind( PreparedStatement statement, int index, Color value ) throws SQLException {
+     *     statement.setInt( index, value.getRGB() );
+     *   }
+     * } );
+     * </pre>
+     * Standard converters use the typed JDBC methods for strings, numbers, booleans, dates and byte arrays, and store
+     * enums by name. Register converters before the first use of the active record classes having fields of the type.
+     * @param type The converted type, not primitive.
+     * @param converter The converter to use for fields and arguments of this type.
+     */
+    public static <V> void registerConverter(Class<V> type, ColumnConverter<V> converter) {
+        Converters.register( type, converter );
+    }
+
+    /**
+     * @param type An active record class.
+     * @return Hit, miss and eviction counts of the cache of the rows of the given class, or <code>null</code> if it is
+     * not {@linkplain activerecord.annotation.Cached cached}.
+     */
+    public static CacheStats getCacheStats(Class<? extends ActiveRecord<?>> type) {
+        EntityCache cache = EntityMetadata.of( type ).getCache();
+        return cache == null ? null : cache.stats();
+    }
+
+    /**
+     * Forget the cached rows of the given class, after modifying its table by other means than active records.
+     * @param type An active record class, {@linkplain activerecord.annotation.Cached cached} or not.
+     */
+    public static void clearCache(Class<? extends ActiveRecord<?>> type) {
+        EntityCache cache = EntityMetadata.of( type ).getCache();
+        if ( cache != null ) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * @return Number of queries whose SQL text was reused from the generated SQL cache.
+     */
+    public static long getSqlCacheHitCount() {
+        return SqlTemplates.hitCount();
+    }
+
+    /**
+     * @return Number of queries whose SQL text had to be generated, then cached.
+     */
+    public static long getSqlCacheMissCount() {
+        return SqlTemplates.missCount();
+    }
+
     /**
      * Save by inserting or updating this instance to the target database.
      * <pre>
@@ -141,7 +387,9 @@ public abstract class ActiveRecord<T extends ActiveRecord>
      * // ...
      * contact.save();
      * </pre>
-     * The database is now up to date or contains a new row.
+     * The database is now up to date or contains a new row. When inserting, the
+     * {@linkplain activerecord.annotation.PrimaryKey primary key} generated by the database is written into this
+     * instance, so that saving it again updates the same row.
      * @throws SQLException This may failed, sorry.
      */
     public void save()
@@ -149,83 +397,240 @@ public abstract class ActiveRecord<T extends ActiveRecord>
     {
         ArrayList<Object> args = new ArrayList<>();
         String query;
+        Operation operation;
         if ( existInDatabase() ) {
             query = buildUpdateQuery( args );
+            operation = Operation.UPDATE;
+            if ( query == null ) {
+                logger().debug( "Nothing changed in {}: no update", this );
+                return;
+            }
         } else {
             query = buildInsertionQuery( args );
+            operation = Operation.INSERT;
         }
-        try (PreparedStatement statement = connection.prepareStatement( query )) {
+        EntityMetadata metadata = metadata();
+        boolean generatedKeys = operation == Operation.INSERT && metadata.getPrimaryKey() != null;
+        Transactions.saving( this, operation == Operation.INSERT );
+        Connection connection = Connections.acquire();
+        try (StatementCache.Lease lease = StatementCache.prepare( connection, query, generatedKeys )) {
+            PreparedStatement statement = lease.statement();
             bindArguments( statement, args );
             logger().debug("Executing query '{}' with values {}", query, args);
-            stopwatch.reset().start();
+            long start = System.nanoTime();
             statement.executeUpdate();
-            stopwatch.stop();
-            logger().info( "Executed query '{}' with values {} in {} ms", new Object[] { query, args, stopwatch.elapsedMillis() } );
+            executed( operation, query, args, start );
+            if ( generatedKeys ) {
+                readGeneratedKeys( statement, metadata, Collections.singletonList( this ) );
+            }
+        } finally {
+            Connections.release( connection );
         }
+        saved( Collections.singletonList( this ) );
     }
 
-    private boolean existInDatabase() {
-        return hasPrimaryKeyNotNull();
+    /**
+     * Refresh the {@linkplain activerecord.annotation.Cached cached} rows of the saved instances, invalidate the cached
+     * query results of their tables, and put these instances in the identity map of the
+     * {@linkplain Session#current() current session}, unless an instance of the same row is already there.
+     */
+    static void saved( Collection<? extends ActiveRecord<?>> records )
+    {
+        Session session = Session.current();
+        for (ActiveRecord<?> record : records) {
+            EntityMetadata metadata = record.metadata();
+            Object[] values = record.values( metadata );
+            boolean partial = false;
+            for (int index = 0; record.snapshot != null && index < values.length; index++) {
+                if ( record.snapshot[index] == NOT_LOADED && values[index] == null ) {
+                    values[index] = NOT_LOADED;
+                    partial = true;
+                }
+            }
+            record.snapshot = values;
+            Transactions.written( record.clazz );
+            QueryCache.invalidate( metadata.getTable() );
+            if ( metadata.getCache() != null ) {
+                if ( partial ) {
+                    metadata.getCache().invalidate( metadata.getPrimaryKey().get( record ) );
+                } else {
+                    metadata.getCache().put( record );
+                }
+            }
+            if ( session != null && metadata.getPrimaryKey() != null && !partial ) {
+                session.attach( metadata, record );
+            }
+        }
     }
 
-    private boolean hasPrimaryKeyNotNull() {
-        for (Field field : getClass().getDeclaredFields()) {
-            PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
-            if (primaryKey != null) {
-                field.setAccessible(true);
-                try {
-                    return field.get(this) != null;
-                } catch ( IllegalAccessException ignored ) {}
+    /**
+     * Forget the deleted rows, in the {@linkplain activerecord.annotation.Cached cache} and in the identity map of the
+     * {@linkplain Session#current() current session}: the row of the primary key of this example, or else every row
+     * of its class. The cached query results of its table are invalidated.
+     */
+    void deleted()
+    {
+        EntityMetadata metadata = metadata();
+        Transactions.written( clazz );
+        QueryCache.invalidate( metadata.getTable() );
+        EntityCache cache = metadata.getCache();
+        Session session = Session.current();
+        EntityMetadata.Column primaryKey = metadata.getPrimaryKey();
+        Object key = primaryKey == null ? null : primaryKey.get( this );
+        if ( key == null ) {
+            if ( cache != null ) {
+                cache.invalidateAll();
+            }
+            if ( session != null ) {
+                session.detachAll( clazz );
+            }
+        } else {
+            if ( cache != null ) {
+                cache.invalidate( key );
+            }
+            if ( session != null ) {
+                session.detach( clazz, key );
             }
         }
-        return false;
     }
 
+    /**
+     * Write the keys generated by an insertion into the primary key of the inserted instances.
+     * <p>
+     *   Keys are only written when the driver returns one key per inserted row: some drivers only return the key of
+     *   the last row of a batch or of a multi-row insertion, leaving the primary keys of the instances unknown.
+     * </p>
+     * @param records The inserted instances, in insertion order.
+     */
+    private static void readGeneratedKeys( PreparedStatement statement, EntityMetadata metadata,
+                                           List<? extends ActiveRecord<?>> records )
+        throws SQLException
+    {
+        EntityMetadata.Column primaryKey = metadata.getPrimaryKey();
+        List<Object> keys = new ArrayList<>( records.size() );
+        try (ResultSet resultSet = statement.getGeneratedKeys()) {
+            while ( resultSet.next() ) {
+                keys.add( primaryKey.read( resultSet, 1 ) );
+            }
+        }
+        if ( keys.size() != records.size() ) {
+            LoggerFactory.getLogger( metadata.getType() ).warn( "Got {} generated keys for {} inserted rows: primary keys left unset",
+                                                               keys.size(), records.size() );
+            return;
+        }
+        for (int index = 0; index < keys.size(); index++) {
+            primaryKey.set( records.get( index ), keys.get( index ) );
+        }
+    }
+
+    boolean existInDatabase() {
+        return hasPrimaryKeyNotNull();
+    }
+
+    private boolean hasPrimaryKeyNotNull() {
+        EntityMetadata.Column primaryKey = metadata().getPrimaryKey();
+        return primaryKey != null && primaryKey.get( this ) != null;
+    }
+
+    private EntityMetadata metadata() {
+        return EntityMetadata.of( clazz );
+    }
+
+    /**
+     * Collect the columns changed since the last {@link #snapshot(Object[]) snapshot}, or all columns if none. Columns
+     * not loaded are only collected once set.
+     * @return The update query of the changed columns, or <code>null</code> if none changed.
+     */
     private String buildUpdateQuery(ArrayList<Object> args) {
-        try {
-            Query.UpdateQuery query = Query.update( getClass().getSimpleName() );
-            String primaryKeyColumn = null;
-            Object primaryKeyValue = null;
-            for (Field field : getClass().getDeclaredFields()) {
-                PrimaryKey primaryKey = field.getAnnotation(PrimaryKey.class);
-                field.setAccessible(true);
-                if (primaryKey != null) {
-                    primaryKeyColumn = field.getName();
-                    primaryKeyValue = field.get(this);
-                } else {
-                    args.add(field.get(this));
-                    query.set( field.getName() , "?");
+        EntityMetadata metadata = metadata();
+        EntityMetadata.Column primaryKey = metadata.getPrimaryKey();
+        long[] mask = SqlTemplates.newMask( metadata );
+        for (EntityMetadata.Column column : metadata.getColumns()) {
+            if (column != primaryKey) {
+                Object value = column.get(this);
+                Object loaded = snapshot == null ? null : snapshot[column.getIndex()];
+                boolean changed = loaded == NOT_LOADED ? value != null : !Objects.deepEquals( value, loaded );
+                if ( snapshot == null || changed ) {
+                    SqlTemplates.set( mask, column );
+                    args.add( value );
                 }
             }
-            args.add( primaryKeyValue );
-            return query.where(primaryKeyColumn).isEqualTo( "?" ).toString();
-        } catch ( IllegalAccessException ignored ) {}
-        return null;
+        }
+        if ( args.isEmpty() ) {
+            return null;
+        }
+        args.add( primaryKey.get( this ) );
+        return SqlTemplates.update( metadata, mask );
+    }
+
+    /**
+     * Remember the column values of this instance, as they are in the database.
+     */
+    void snapshot( Object[] values )
+    {
+        this.snapshot = values;
+    }
+
+    /**
+     * @return The column values of this instance as last read from or written to the database, or <code>null</code>.
+     */
+    Object[] snapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * @return The column values of this instance, mutable ones copied, so that changing them in place is detected.
+     */
+    private Object[] values( EntityMetadata metadata )
+    {
+        EntityMetadata.Column[] columns = metadata.getColumns();
+        Object[] values = new Object[columns.length];
+        for (EntityMetadata.Column column : columns) {
+            values[column.getIndex()] = Converters.copy( column.get( this ) );
+        }
+        return values;
     }
 
     private String buildInsertionQuery( ArrayList<Object> args )
     {
-        try {
-            Query.InsertionQuery insert = Query.insertInto( getClass().getSimpleName() );
-            for (Field field : getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                args.add(field.get(this));
-                insert.column( field.getName() ).value("?");
-            }
-            return insert.toString();
-        } catch ( IllegalAccessException ignored ) {}
-        return null;
+        EntityMetadata metadata = metadata();
+        collectInsertionArguments( metadata, args );
+        return SqlTemplates.insert( metadata );
     }
 
-    private void bindArguments( PreparedStatement statement, ArrayList<Object> args )
-            throws SQLException
+    private void collectInsertionArguments( EntityMetadata metadata, List<Object> args )
     {
-        int index = 1;
-        for (Object arg : args) {
-            statement.setObject(index++, arg);
+        for (EntityMetadata.Column column : metadata.getColumns()) {
+            args.add(column.get(this));
         }
     }
 
+    private void executed( Operation operation, String query, List<Object> args, long start )
+    {
+        executed( clazz, operation, query, args, start );
+    }
+
+    static void executed( Class<?> type, Operation operation, String query, Object args, long start )
+    {
+        executedIn( type, operation, query, args, System.nanoTime() - start );
+    }
+
+    /**
+     * @param elapsed Time spent executing the query, in nanoseconds.
+     */
+    static void executedIn( Class<?> type, Operation operation, String query, Object args, long elapsed )
+    {
+        Metrics.record( type, operation, elapsed );
+        LoggerFactory.getLogger( type ).info( "Executed query '{}' with values {} in {} ms", new Object[] { query, args, TimeUnit.NANOSECONDS.toMillis( elapsed ) } );
+    }
+
+    static void bindArguments( PreparedStatement statement, List<Object> args )
+            throws SQLException
+    {
+        Converters.bind( statement, args );
+    }
+
     /**
      * Find all corresponding rows corresponding to this one in the target database.
      * <pre>
@@ -243,80 +648,731 @@ public abstract class ActiveRecord<T extends ActiveRecord>
     public List<T> find()
         throws SQLException
     {
+        EntityMetadata metadata = metadata();
         ArrayList<Object> args = new ArrayList<>();
-        String query = buildSelectionQuery( args );
-        try (PreparedStatement statement = connection.prepareStatement( query )) {
-            bindArguments( statement, args );
-            logger().debug("Executing query '{}' with values {}", query, args);
-            stopwatch.reset().start();
-            try (ResultSet resultSet = statement.executeQuery()) {
-                stopwatch.stop();
-                logger().info( "Executed query '{}' with values {} in {} ms", new Object []{ query, args, stopwatch.elapsedMillis() } );
-                ArrayList<T> results = new ArrayList<>();
-                createResultsFromResultSet( clazz, resultSet, results );
-                return results;
+        long[] mask = collectExampleArguments( metadata, args );
+        T loaded = loaded( metadata, mask, args );
+        if ( loaded != null ) {
+            ArrayList<T> results = new ArrayList<>();
+            results.add( loaded );
+            return results;
+        }
+        return findAll( SqlTemplates.select( metadata, mask ), args );
+    }
+
+    /**
+     * @return When this example only populates the primary key, the instance loaded in the
+     * {@linkplain Session#current() current session}, or else a copy of the
+     * {@linkplain activerecord.annotation.Cached cached} row. Otherwise <code>null</code>.
+     */
+    private T loaded( EntityMetadata metadata, long[] mask, List<Object> args )
+    {
+        EntityMetadata.Column primaryKey = metadata.getPrimaryKey();
+        if ( primaryKey == null || args.size() != 1 || !SqlTemplates.isSet( mask, primaryKey ) ) {
+            return null;
+        }
+        return clazz.cast( loaded( metadata, args.get( 0 ) ) );
+    }
+
+    /**
+     * @return The instance of the given primary key loaded in the {@linkplain Session#current() current session}, or
+     * else a copy of the {@linkplain activerecord.annotation.Cached cached} row, or else <code>null</code>.
+     */
+    private static Object loaded( EntityMetadata metadata, Object key )
+    {
+        Session session = Session.current();
+        if ( session != null ) {
+            Object loaded = session.get( metadata.getType(), key );
+            if ( loaded != null ) {
+                return loaded;
+            }
+        }
+        if ( metadata.getCache() != null ) {
+            Object cached = metadata.getCache().get( key );
+            if ( cached != null ) {
+                return session == null ? cached : session.attach( metadata, cached );
             }
         }
+        return null;
     }
 
-    private <I> void createResultsFromResultSet( Class<I> clazz, ResultSet resultSet, ArrayList<I> results )
+    /**
+     * Find a page of the rows corresponding to this one in the target database, ordered by primary key.
+     * <pre>
+     * Contact candidate = new Contact();
+     * // ...
+     * // populate matching fields
+     * // ...
+     * List&lt;Contact> thirdPage = candidate.find( 40, 20 );
+     * </pre>
+     * The database still reads and skips the <code>offset</code> first rows: to read deep pages, prefer
+     * {@link #findAfter(Object, int)}.
+     * @param offset Number of corresponding rows to skip.
+     * @param limit Maximum number of rows to return.
+     * @return Return a list containing at most <code>limit</code> corresponding instances.
+     * @throws SQLException This may failed, sorry.
+     */
+    public List<T> find( int offset, int limit )
         throws SQLException
     {
-        while ( resultSet.next() ) {
-            results.add( createResultFromRow( clazz, resultSet ) );
+        if ( offset < 0 || limit < 0 ) {
+            throw new IllegalArgumentException( "Offset and limit must be positive, got " + offset + " and " + limit );
         }
+        EntityMetadata metadata = metadata();
+        ArrayList<Object> args = new ArrayList<>();
+        String query = SqlTemplates.selectPage( metadata, collectExampleArguments( metadata, args ) );
+        args.add( limit );
+        args.add( offset );
+        return findAll( query, args );
     }
 
-    private <I> I createResultFromRow( Class<I> clazz, ResultSet resultSet )
+    /**
+     * Find the next page of the rows corresponding to this one in the target database, ordered by primary key.
+     * <pre>
+     * Contact candidate = new Contact();
+     * // ...
+     * // populate matching fields
+     * // ...
+     * List&lt;Contact> page = candidate.findAfter( null, 20 );
+     * while ( !page.isEmpty() ) {
+     *   // ...
+     *   page = candidate.findAfter( page.get( page.size() - 1 ).getId(), 20 );
+     * }
+     * </pre>
+     * Unlike {@link #find(int, int)}, the database seeks directly to the first row of the page, so every page costs
+     * the same whatever its depth.
+     * @param lastKey The primary key of the last instance of the previous page, or <code>null</code> for the first page.
+     * @param limit Maximum number of rows to return.
+     * @return Return a list containing at most <code>limit</code> corresponding instances whose primary key is greater
+     * than <code>lastKey</code>.
+     * @throws SQLException This may failed, sorry.
+     * @throws IllegalStateException When this class has no {@linkplain activerecord.annotation.PrimaryKey primary key}.
+     */
+    public List<T> findAfter( Object lastKey, int limit )
         throws SQLException
     {
-        try {
-            return createResultFromRowWithError( clazz, resultSet );
-        } catch ( IllegalAccessException|InstantiationException|NoSuchFieldException cause ) {
-            throw new RuntimeException("Unable to execute selection query", cause);
+        EntityMetadata metadata = metadata();
+        if ( metadata.getPrimaryKey() == null ) {
+            throw new IllegalStateException( clazz.getName() + " has no primary key to paginate on" );
+        }
+        if ( lastKey == null ) {
+            return find( 0, limit );
+        }
+        if ( limit < 0 ) {
+            throw new IllegalArgumentException( "Limit must be positive, got " + limit );
+        }
+        ArrayList<Object> args = new ArrayList<>();
+        String query = SqlTemplates.selectAfter( metadata, collectExampleArguments( metadata, args ) );
+        args.add( lastKey );
+        args.add( limit );
+        return findAll( query, args );
+    }
+
+    /**
+     * Find the given columns of the rows corresponding to this one in the target database.
+     * <pre>
+     * Contact candidate = new Contact();
+     * // ...
+     * // populate matching fields
+     * // ...
+     * List&lt;Contact> contacts = candidate.select( "id", "email" );
+     * </pre>
+     * Only the selected columns are read from the database: the other fields of the returned instances are left
+     * <code>null</code>. When the primary key is selected, these instances can be {@linkplain #save() saved} back:
+     * only the selected columns that changed, and the other columns whose field was set, are updated.
+     * @param columns Names of the columns to read, whatever their case.
+     * @return Return a list containing all corresponding instances, partially populated.
+     * @throws SQLException This may failed, sorry.
+     * @throws IllegalArgumentException When a name is not a column of this class.
+     */
+    public List<T> select( String... columns )
+        throws SQLException
+    {
+        EntityMetadata metadata = metadata();
+        EntityMetadata.Column[] projection = projection( metadata, columns );
+        ArrayList<Object> args = new ArrayList<>();
+        String query = SqlTemplates.project( metadata, projection, collectExampleArguments( metadata, args ) );
+        return findAll( RowMapper.<T>entity( metadata ), query, args );
+    }
+
+    /**
+     * Find the values of the given columns of the rows corresponding to this one in the target database.
+     * <pre>
+     * Contact candidate = new Contact();
+     * // ...
+     * // populate matching fields
+     * // ...
+     * for ( Object[] row : candidate.selectValues( "firstName", "lastName" ) ) {
+     *   String firstName = (String) row[0];
+     *   // ...
+     * }
+     * </pre>
+     * No active record is created: each row is an array of the values of the columns, in the given order.
+     * @param columns Names of the columns to read, whatever their case.
+     * @return Return a list containing the values of all corresponding rows.
+     * @throws SQLException This may failed, sorry.
+     * @throws IllegalArgumentException When a name is not a column of this class.
+     */
+    public List<Object[]> selectValues( String... columns )
+        throws SQLException
+    {
+        EntityMetadata metadata = metadata();
+        EntityMetadata.Column[] projection = projection( metadata, columns );
+        ArrayList<Object> args = new ArrayList<>();
+        String query = SqlTemplates.project( metadata, projection, collectExampleArguments( metadata, args ) );
+        return findAll( RowMapper.tuple( projection ), query, args );
+    }
+
+    private EntityMetadata.Column[] projection( EntityMetadata metadata, String[] columns )
+    {
+        if ( columns.length == 0 ) {
+            throw new IllegalArgumentException( "At least one column must be selected" );
         }
+        return metadata.getColumns( columns );
     }
 
-    private <I> I createResultFromRowWithError( Class<I> clazz, ResultSet resultSet )
-        throws SQLException, IllegalAccessException, InstantiationException, NoSuchFieldException
+    private List<T> findAll( String query, List<Object> args )
+        throws SQLException
     {
-        I instance = clazz.newInstance();
-        int index = 1;
-        for ( Field field : clazz.getDeclaredFields() ) {
-            field.setAccessible( true );
-            Object value = resultSet.getObject( index++ );
-            field.set( instance, value );
+        EntityMetadata metadata = metadata();
+        if ( !QueryCache.isEnabled() ) {
+            return findAll( RowMapper.<T>entity( metadata ), query, args );
+        }
+        QueryCache.Key key = QueryCache.key( metadata, query, args );
+        List<T> results = QueryCache.get( key );
+        if ( results == null ) {
+            results = findAll( RowMapper.<T>entity( metadata ), query, args );
+            if ( Session.current() == null ) {
+                // Instances of a session may hold unsaved changes
+                QueryCache.put( key, results );
+            }
         }
-        return instance;
+        return results;
     }
 
-    private String buildSelectionQuery( ArrayList<Object> args )
+    private <R> List<R> findAll( RowMapper<R> mapper, String query, List<Object> args )
+        throws SQLException
+    {
+        ArrayList<R> results = new ArrayList<>();
+        try (Cursor<R> cursor = Cursor.open( clazz, mapper, query, args, fetchSize )) {
+            R result;
+            while ( ( result = cursor.read() ) != null ) {
+                results.add( result );
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Find the instances of the given primary keys, with as few queries as possible.
+     * <pre>
+     * Map&lt;Object, Contact> contacts = ActiveRecord.findByIds( Contact.class, Arrays.asList( 3, 1, 2 ) );
+     * </pre>
+     * <p>
+     *   Each distinct key is first looked up in the {@linkplain Session#current() current session} and in the
+     *   {@linkplain activerecord.annotation.Cached cache} of the class. The others are selected together, with
+     *   <code>WHERE id IN (?, ...)</code> queries binding at most the {@linkplain #setMaximumParameters(int) maximum
+     *   number of parameters} each. The lists of parameters are padded to a power of two, so that few distinct
+     *   statements are prepared and {@linkplain #setStatementCacheSize(int) cached}, whatever the number of keys.
+     * </p>
+     * @param type The class of the instances to find.
+     * @param ids The primary keys of the instances, of the type of the primary key. <code>null</code> keys are ignored.
+     * @return The instances found, by primary key, in the order of the given keys. Keys of no row are left out.
+     * @throws SQLException This may failed, sorry.
+     * @throws IllegalArgumentException When the given class has no {@linkplain activerecord.annotation.PrimaryKey
+     * primary key}.
+     */
+    public static <R extends ActiveRecord<R>> Map<Object, R> findByIds(Class<R> type, Collection<?> ids)
+        throws SQLException
+    {
+        EntityMetadata metadata = EntityMetadata.of( type );
+        EntityMetadata.Column primaryKey = metadata.getPrimaryKey();
+        if ( primaryKey == null ) {
+            throw new IllegalArgumentException( type.getName() + " has no primary key to find by" );
+        }
+        Map<Object, R> found = new HashMap<>();
+        Set<Object> missing = new LinkedHashSet<>();
+        for (Object id : ids) {
+            if ( id == null || found.containsKey( id ) || missing.contains( id ) ) {
+                continue;
+            }
+            Object loaded = loaded( metadata, id );
+            if ( loaded != null ) {
+                found.put( id, type.cast( loaded ) );
+            } else {
+                missing.add( id );
+            }
+        }
+        for (R instance : ActiveRecord.<R>findIn( metadata, primaryKey, missing )) {
+            found.put( primaryKey.get( instance ), instance );
+        }
+        Map<Object, R> results = new LinkedHashMap<>();
+        for (Object id : ids) {
+            R instance = found.get( id );
+            if ( instance != null ) {
+                results.put( id, instance );
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Preload the instances referenced by a foreign key of the given instances, with as few queries as possible.
+     * <pre>
+     * List&lt;Contact> contacts = new Contact().find();
+     * Map&lt;Object, ContactGroup> groups = ActiveRecord.preloadReferenced( contacts, "groupId", ContactGroup.class );
+     * for ( Contact contact : contacts ) {
+     *   ContactGroup group = groups.get( contact.getGroupId() );
+     *   // ...
+     * }
+     * </pre>
+     * <p>
+     *   The referenced instances are found {@linkplain #findByIds(Class, Collection) by primary key}, from the distinct
+     *   values of the foreign key. While a {@linkplain Session#current() session} is open, preloaded instances are
+     *   loaded in it, so that later finds by primary key do not query the database either.
+     * </p>
+     * @param records The referencing instances, possibly of different classes.
+     * @param foreignKey Name of a column of the instances, {@linkplain activerecord.annotation.References referencing}
+     * the given class, of the same type as its primary key.
+     * @param type The referenced class.
+     * @return The referenced instances found, by primary key.
+     * @throws SQLException This may failed, sorry.
+     * @throws IllegalArgumentException When the column is not declared as referencing the given class.
+     */
+    public static <R extends ActiveRecord<R>> Map<Object, R> preloadReferenced(
+        Collection<? extends ActiveRecord<?>> records, String foreignKey, Class<R> type)
+        throws SQLException
+    {
+        Set<Object> keys = new LinkedHashSet<>();
+        EntityMetadata metadata = null;
+        EntityMetadata.Column column = null;
+        for (ActiveRecord<?> record : records) {
+            if ( record.metadata() != metadata ) {
+                metadata = record.metadata();
+                column = metadata.getColumns( foreignKey )[0];
+                if ( column.getReferenced() != type ) {
+                    throw new IllegalArgumentException( metadata.getType().getName() + "." + column.getName()
+                                                        + " is not declared as referencing " + type.getName() );
+                }
+            }
+            Object key = column.get( record );
+            if ( key != null ) {
+                keys.add( key );
+            }
+        }
+        return findByIds( type, keys );
+    }
+
+    /**
+     * Preload the instances referencing the given instances by a foreign key, with as few queries as possible.
+     * <pre>
+     * List&lt;ContactGroup> groups = new ContactGroup().find();
+     * Map&lt;Object, List&lt;Contact>> contacts = ActiveRecord.preloadReferencing( groups, Contact.class, "groupId" );
+     * for ( ContactGroup group : groups ) {
+     *   for ( Contact contact : contacts.get( group.getId() ) ) {
+     *     // ...
+     *   }
+     * }
+     * </pre>
+     * <p>
+     *   The instances are selected together, with <code>WHERE groupId IN (?, ...)</code> queries binding at most the
+     *   {@linkplain #setMaximumParameters(int) maximum number of parameters} each, then grouped by foreign key.
+     * </p>
+     * @param records The referenced instances, of the class referenced by the foreign key.
+     * @param type The referencing class.
+     * @param foreignKey Name of a column of the referencing class, {@linkplain activerecord.annotation.References
+     * referencing} the class of the instances, of the same type as its primary key.
+     * @return The referencing instances, by primary key of the given instances: the list is empty when none references
+     * an instance.
+     * @throws SQLException This may failed, sorry.
+     * @throws IllegalArgumentException When the column is not declared as referencing the class of an instance.
+     */
+    public static <R extends ActiveRecord<R>> Map<Object, List<R>> preloadReferencing(
+        Collection<? extends ActiveRecord<?>> records, Class<R> type, String foreignKey)
+        throws SQLException
+    {
+        EntityMetadata referencing = EntityMetadata.of( type );
+        EntityMetadata.Column column = referencing.getColumns( foreignKey )[0];
+        Map<Object, List<R>> instances = new LinkedHashMap<>();
+        for (ActiveRecord<?> record : records) {
+            if ( record.clazz != column.getReferenced() ) {
+                throw new IllegalArgumentException( type.getName() + "." + column.getName()
+                                                    + " is not declared as referencing " + record.clazz.getName() );
+            }
+            Object key = record.metadata().getPrimaryKey().get( record );
+            if ( key != null && !instances.containsKey( key ) ) {
+                instances.put( key, new ArrayList<R>() );
+            }
+        }
+        for (R instance : ActiveRecord.<R>findIn( referencing, column, instances.keySet() )) {
+            instances.get( column.get( instance ) ).add( instance );
+        }
+        return instances;
+    }
+
+    /**
+     * @return The instances whose given column is one of the given distinct values, selected by chunks of at most the
+     * {@linkplain #setMaximumParameters(int) maximum number of parameters}.
+     */
+    private static <R> List<R> findIn( EntityMetadata metadata, EntityMetadata.Column column, Collection<Object> values )
+        throws SQLException
+    {
+        List<Object> distinctValues = new ArrayList<>( values );
+        List<R> results = new ArrayList<>( distinctValues.size() );
+        int chunkSize = maximumParameters;
+        for (int from = 0; from < distinctValues.size(); from += chunkSize) {
+            List<Object> chunk = distinctValues.subList( from, Math.min( from + chunkSize, distinctValues.size() ) );
+            int bucket = bucket( chunk.size(), chunkSize );
+            List<Object> args = new ArrayList<>( bucket );
+            args.addAll( chunk );
+            while ( args.size() < bucket ) {
+                // Repeated values match no more rows
+                args.add( chunk.get( chunk.size() - 1 ) );
+            }
+            String query = SqlTemplates.selectIn( metadata, column, bucket );
+            try (Cursor<R> cursor = Cursor.open( metadata.getType(), RowMapper.<R>entity( metadata ), query, args,
+                                                 fetchSize )) {
+                R result;
+                while ( ( result = cursor.read() ) != null ) {
+                    results.add( result );
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return The smallest power of two not less than <code>count</code>, or <code>maximum</code> if greater.
+     */
+    private static int bucket( int count, int maximum )
+    {
+        int bucket = Integer.highestOneBit( count );
+        if ( bucket < count ) {
+            bucket <<= 1;
+        }
+        return Math.min( bucket, maximum );
+    }
+
+    /**
+     * Find all rows corresponding to this one, as {@link #find()} does, without blocking the calling thread.
+     * <pre>
+     * ListenableFuture&lt;List&lt;Contact>> contacts = candidate.findAsync();
+     * ListenableFuture&lt;List&lt;ContactGroup>> groups = new ContactGroup().findAsync();
+     * // ...
+     * for ( Contact contact : contacts.get() ) {
+     * </pre>
+     * <p>
+     *   Asynchronous operations run on the {@linkplain #setAsyncExecutor(int, int) asynchronous executor}, each
+     *   borrowing its own connection from the {@linkplain #setDataSource(DataSource) data source}: configure one so
+     *   that operations actually run concurrently. They do not take part in the transaction nor in the
+     *   {@linkplain Session session} of the calling thread. The example must not be modified until the operation is
+     *   done.
+     * </p>
+     * @return The future list of the corresponding instances, failing with the {@link SQLException} of the query, if
+     * any.
+     * @throws java.util.concurrent.RejectedExecutionException When the asynchronous executor is saturated.
+     */
+    public ListenableFuture<List<T>> findAsync() {
+        return AsyncExecutor.submit( new Callable<List<T>>()
+        {
+            @Override
+            public List<T> call()
+                throws SQLException
+            {
+                return find();
+            }
+        } );
+    }
+
+    /**
+     * Save this instance, as {@link #save()} does, without blocking the calling thread.
+     * <p>See {@link #findAsync()} for where asynchronous operations run.</p>
+     * @return The future of this instance, once saved, failing with the {@link SQLException} of the query if any.
+     * @throws java.util.concurrent.RejectedExecutionException When the asynchronous executor is saturated.
+     */
+    public ListenableFuture<T> saveAsync() {
+        return AsyncExecutor.submit( new Callable<T>()
+        {
+            @Override
+            public T call()
+                throws SQLException
+            {
+                save();
+                return clazz.cast( ActiveRecord.this );
+            }
+        } );
+    }
+
+    /**
+     * Delete the rows corresponding to this one, as {@link #delete()} does, without blocking the calling thread.
+     * <p>See {@link #findAsync()} for where asynchronous operations run.</p>
+     * @return The future of this instance, once deleted, failing with the {@link SQLException} of the query if any.
+     * @throws java.util.concurrent.RejectedExecutionException When the asynchronous executor is saturated.
+     */
+    public ListenableFuture<T> deleteAsync() {
+        return AsyncExecutor.submit( new Callable<T>()
+        {
+            @Override
+            public T call()
+                throws SQLException
+            {
+                delete();
+                return clazz.cast( ActiveRecord.this );
+            }
+        } );
+    }
+
+    /**
+     * Iterate over all rows corresponding to this one in the target database, without loading them all in memory.
+     * <pre>
+     * Contact candidate = new Contact();
+     * // ...
+     * // populate matching fields
+     * // ...
+     * try ( Cursor&lt;Contact> contacts = candidate.iterate() ) {
+     *   for ( Contact contact : contacts ) {
+     *     // ...
+     *   }
+     * }
+     * </pre>
+     * Rows are hydrated one at a time, while iterating, and fetched from the database by batches of
+     * {@linkplain #setFetchSize(int) fetch size} rows.
+     * @return An open cursor over the corresponding instances, to close when done.
+     * @throws SQLException This may failed, sorry.
+     */
+    public Cursor<T> iterate()
+        throws SQLException
     {
+        ArrayList<Object> args = new ArrayList<>();
+        String query = buildSelectionQuery( args );
+        return Cursor.open( clazz, RowMapper.<T>entity( metadata() ), query, args, fetchSize );
+    }
+
+    /**
+     * Handle, one at a time, all rows corresponding to this one in the target database.
+     * <pre>
+     * Contact candidate = new Contact();
+     * // ...
+     * // populate matching fields
+     * // ...
+     * candidate.forEach( new RecordHandler&lt;Contact>() {
+     *   public void handle( Contact contact ) {
+     *     // ...
+     *   }
+     * } );
+     * </pre>
+     * Only the handled instance is held in memory, whatever the number of corresponding rows.
+     * @param handler Called with each corresponding instance.
+     * @throws SQLException This may failed, sorry.
+     * @see #iterate()
+     */
+    public void forEach( RecordHandler<? super T> handler )
+        throws SQLException
+    {
+        try (Cursor<T> cursor = iterate()) {
+            T result;
+            while ( ( result = cursor.read() ) != null ) {
+                handler.handle( result );
+            }
+        }
+    }
+
+    /**
+     * Handle all rows corresponding to this one in the target database, scanning ranges of primary keys in parallel.
+     * <pre>
+     * final AtomicLong exported = new AtomicLong();
+     * new Contact().forEachParallel( 8, new RecordHandler&lt;Contact>() {
+     *   public void handle( Contact contact ) {
+     *     // ...
+     *     exported.incrementAndGet();
+     *   }
+     * } );
+     * </pre>
+     * <p>
+     *   The interval between the minimum and the maximum corresponding primary keys is split into
+     *   <code>partitions</code> ranges of equal width. Each range is read by its own query, on its own connection
+     *   borrowed from the {@linkplain #setDataSource(DataSource) data source}, and hydrated by its own thread of a
+     *   fork-join pool, so that reading and hydration use several cores. Keys unevenly spread over the interval make
+     *   unevenly sized ranges. Queries do not take part in the transaction of the calling thread. Beyond
+     *   {@value #MAXIMUM_SCAN_THREADS} ranges, threads scan several ranges each.
+     * </p>
+     * @param partitions Number of ranges, and of threads scanning them.
+     * @param handler Called with each corresponding instance, by several threads at the same time: it must be
+     * thread-safe.
+     * @throws SQLException This may failed, sorry. Ranges still being scanned are then scanned to the end.
+     * @throws IllegalStateException When this class has no integral {@linkplain activerecord.annotation.PrimaryKey
+     * primary key}, or when no data source is set.
+     */
+    public void forEachParallel(int partitions, RecordHandler<? super T> handler)
+        throws SQLException
+    {
+        scanParallel( partitions, handler, null );
+    }
+
+    /**
+     * Find all rows corresponding to this one in the target database, scanning ranges of primary keys in parallel, as
+     * {@link #forEachParallel(int, RecordHandler)} does.
+     * @param partitions Number of ranges, and of threads scanning them.
+     * @return Return a list containing all the corresponding instances, by range of primary keys.
+     * @throws SQLException This may failed, sorry.
+     * @throws IllegalStateException When this class has no integral {@linkplain activerecord.annotation.PrimaryKey
+     * primary key}, or when no data source is set.
+     */
+    public List<T> findParallel(int partitions)
+        throws SQLException
+    {
+        List<List<T>> resultsByRange = new ArrayList<>();
+        scanParallel( partitions, null, resultsByRange );
+        List<T> results = new ArrayList<>();
+        for (List<T> rangeResults : resultsByRange) {
+            results.addAll( rangeResults );
+        }
+        return results;
+    }
+
+    /**
+     * @param handler Called with each instance, or <code>null</code> to collect them.
+     * @param resultsByRange Receive the instances of each range, in range order, when not handled.
+     */
+    private void scanParallel( int partitions, RecordHandler<? super T> handler, List<List<T>> resultsByRange )
+        throws SQLException
+    {
+        if ( partitions <= 0 ) {
+            throw new IllegalArgumentException( "Partitions must be positive, got " + partitions );
+        }
+        EntityMetadata metadata = metadata();
+        EntityMetadata.Column primaryKey = metadata.getPrimaryKey();
+        if ( primaryKey == null || !INTEGRAL_TYPES.contains( primaryKey.getType() ) ) {
+            throw new IllegalStateException( clazz.getName() + " has no integral primary key to partition on" );
+        }
+        if ( Connections.getDataSource() == null ) {
+            throw new IllegalStateException( "Parallel scans need a data source, to borrow a connection per range" );
+        }
+        ArrayList<Object> args = new ArrayList<>();
+        long[] mask = collectExampleArguments( metadata, args );
+        Object[] bounds;
+        EntityMetadata.Column[] boundsColumns = { primaryKey, primaryKey };
+        try (Cursor<Object[]> cursor = Cursor.open( clazz, RowMapper.tuple( boundsColumns ),
+                                                    SqlTemplates.selectBounds( metadata, mask ), args, 0 )) {
+            bounds = cursor.read();
+        }
+        if ( bounds == null || bounds[0] == null ) {
+            return;
+        }
+        long minimum = ( (Number) bounds[0] ).longValue();
+        long maximum = ( (Number) bounds[1] ).longValue();
+        long width = ( maximum - minimum ) / partitions + 1;
+        List<long[]> ranges = new ArrayList<>( partitions );
+        for (long low = minimum; low <= maximum; low += width) {
+            long high = maximum - low < width ? maximum : low + width - 1;
+            ranges.add( new long[] { low, high } );
+            if ( high == maximum ) {
+                break;
+            }
+        }
+        if ( resultsByRange != null ) {
+            for (int range = 0; range < ranges.size(); range++) {
+                resultsByRange.add( new ArrayList<T>() );
+            }
+        }
+        RangeScan<T> scan = new RangeScan<>( metadata, SqlTemplates.selectRange( metadata, mask ), args, ranges, 0,
+                                             ranges.size(), handler, resultsByRange );
+        ForkJoinPool pool = new ForkJoinPool( Math.min( ranges.size(), MAXIMUM_SCAN_THREADS ) );
         try {
-            Query.SelectionQuery select = null;
-            Query.WhereQuery whereClause = null;
-            for ( Field field : clazz.getDeclaredFields() ) {
-                field.setAccessible(true);
-                Object arg = field.get( this );
-                String fieldName = field.getName();
-                if (select == null) {
-                    select = Query.select(fieldName);
-                } else {
-                    select = select.and(fieldName);
+            pool.invoke( scan );
+        } catch ( RuntimeException failure ) {
+            for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+                if ( cause instanceof SQLException ) {
+                    throw (SQLException) cause;
                 }
-                if ( arg != null) {
-                    if (whereClause == null) {
-                        whereClause = Query.where( fieldName );
+            }
+            throw failure;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Scan of ranges of primary keys, split in halves until each range is scanned by its own task.
+     */
+    private static final class RangeScan<T>
+        extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final EntityMetadata metadata;
+        private final String query;
+        private final List<Object> args;
+        private final List<long[]> ranges;
+        private final int from;
+        private final int to;
+        private final RecordHandler<? super T> handler;
+        private final List<List<T>> resultsByRange;
+
+        private RangeScan( EntityMetadata metadata, String query, List<Object> args, List<long[]> ranges, int from,
+                           int to, RecordHandler<? super T> handler, List<List<T>> resultsByRange )
+        {
+            this.metadata = metadata;
+            this.query = query;
+            this.args = args;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+            this.handler = handler;
+            this.resultsByRange = resultsByRange;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( to - from > 1 ) {
+                int middle = ( from + to ) >>> 1;
+                invokeAll( new RangeScan<>( metadata, query, args, ranges, from, middle, handler, resultsByRange ),
+                           new RangeScan<>( metadata, query, args, ranges, middle, to, handler, resultsByRange ) );
+                return;
+            }
+            List<Object> rangeArgs = new ArrayList<>( args );
+            rangeArgs.add( ranges.get( from )[0] );
+            rangeArgs.add( ranges.get( from )[1] );
+            try (Cursor<T> cursor = Cursor.open( metadata.getType(), RowMapper.<T>entity( metadata ), query, rangeArgs,
+                                                 fetchSize )) {
+                T result;
+                while ( ( result = cursor.read() ) != null ) {
+                    if ( handler != null ) {
+                        handler.handle( result );
                     } else {
-                        whereClause.and(fieldName);
+                        resultsByRange.get( from ).add( result );
                     }
-                    whereClause.isEqualTo("?");
-                    args.add(arg);
                 }
+            } catch ( SQLException cause ) {
+                throw new IllegalStateException( "Unable to scan " + metadata.getTable() + " between "
+                                                 + ranges.get( from )[0] + " and " + ranges.get( from )[1], cause );
             }
-            return select.from(clazz.getSimpleName()).toString() + whereClause.toString();
-        } catch (IllegalAccessException ignored) {}
-        return null;
+        }
+    }
+
+    private String buildSelectionQuery( ArrayList<Object> args )
+    {
+        EntityMetadata metadata = metadata();
+        return SqlTemplates.select( metadata, collectExampleArguments( metadata, args ) );
+    }
+
+    /**
+     * Collect the populated fields of this example.
+     * @param args Receive the values of the populated fields, in column order.
+     * @return The mask of the populated columns.
+     */
+    private long[] collectExampleArguments( EntityMetadata metadata, ArrayList<Object> args )
+    {
+        long[] mask = SqlTemplates.newMask( metadata );
+        for ( EntityMetadata.Column column : metadata.getColumns() ) {
+            Object arg = column.get( this );
+            if ( arg != null ) {
+                SqlTemplates.set( mask, column );
+                args.add( arg );
+            }
+        }
+        return mask;
     }
 
     /**
@@ -336,36 +1392,303 @@ public abstract class ActiveRecord<T extends ActiveRecord>
     {
         ArrayList<Object> args = new ArrayList<>();
         String query = buildDeletionQuery( args );
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
+        Connection connection = Connections.acquire();
+        try (StatementCache.Lease lease = StatementCache.prepare( connection, query )) {
+            PreparedStatement statement = lease.statement();
             bindArguments(statement, args);
             logger().debug("Executing query '{}' with arguments {}", query, args);
-            stopwatch.reset().start();
+            long start = System.nanoTime();
             statement.executeUpdate();
-            stopwatch.stop();
-            logger().info( "Executed query '{}' with arguments {} in {} ms", new Object []{query, args, stopwatch.elapsedMillis()});
+            executed( Operation.DELETE, query, args, start );
+        } finally {
+            Connections.release( connection );
         }
+        deleted();
     }
 
     private String buildDeletionQuery( ArrayList<Object> args )
     {
+        EntityMetadata metadata = metadata();
+        long[] mask = collectExampleArguments( metadata, args );
+        if ( SqlTemplates.isEmpty( mask ) ) {
+            throw new IllegalStateException( "Refusing to delete every row of " + metadata.getTable() + ": populate at least one field" );
+        }
+        return SqlTemplates.delete( metadata, mask );
+    }
+
+    /**
+     * Set how many rows selection queries fetch from the database at once. Default is <code>0</code>, letting the
+     * driver decide.
+     * @see #iterate()
+     */
+    public static void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException( "Fetch size must be positive or zero, got " + fetchSize );
+        }
+        ActiveRecord.fetchSize = fetchSize;
+    }
+
+    /**
+     * Set how many rows {@link #saveAll(Collection)} and {@link #deleteAll(Collection)} send to the database in a
+     * single JDBC batch. Default is {@value #DEFAULT_BATCH_SIZE}.
+     */
+    public static void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException( "Batch size must be positive, got " + batchSize );
+        }
+        ActiveRecord.batchSize = batchSize;
+    }
+
+    /**
+     * Save by inserting or updating all the given instances to the target database, using JDBC batches.
+     * <pre>
+     * List&lt;Contact> contacts = ...
+     * ActiveRecord.saveAll( contacts );
+     * </pre>
+     * <p>
+     *   As with {@link #save()}, instances with a <code>null</code> {@linkplain activerecord.annotation.PrimaryKey
+     *   primary key} are inserted, others are updated. Instances sharing the same SQL are sent together, by batches
+     *   of {@linkplain #setBatchSize(int) batch size} rows, so instances are not necessarily saved in iteration order.
+     * </p>
+     * <p>
+     *   As with {@link #save()}, generated primary keys are written into the inserted instances, provided the driver
+     *   returns the keys of every row of a batch.
+     * </p>
+     * @param records The instances to save, possibly of different classes.
+     * @throws SQLException This may failed, sorry. Batches already executed are not rolled back, unless run in a
+     * transaction.
+     */
+    public static void saveAll(Collection<? extends ActiveRecord<?>> records)
+        throws SQLException
+    {
+        Map<String, Batch> batches = new LinkedHashMap<>();
+        collectSaves( records, batches );
+        executeBatches( batches.values() );
+        saved( records );
+    }
+
+    /**
+     * Delete all the given instances from the target database, using JDBC batches.
+     * <p>
+     *   As with {@link #delete()}, each instance is an example of the rows to delete. Instances populating the same
+     *   fields are sent together, by batches of {@linkplain #setBatchSize(int) batch size} rows.
+     * </p>
+     * @param records The instances to delete, possibly of different classes.
+     * @throws SQLException This may failed, sorry. Batches already executed are not rolled back, unless run in a
+     * transaction.
+     */
+    public static void deleteAll(Collection<? extends ActiveRecord<?>> records)
+        throws SQLException
+    {
+        Map<String, Batch> batches = new LinkedHashMap<>();
+        collectDeletes( records, batches );
+        executeBatches( batches.values() );
+        for (ActiveRecord<?> record : records) {
+            record.deleted();
+        }
+    }
+
+    /**
+     * Save, then delete, the given instances, using JDBC batches, without updating caches nor sessions: see
+     * {@link #saved(Collection)} and {@link #deleted()}.
+     * @param saves The instances to save, batched in order of first appearance of their query.
+     * @param deletes The instances to delete, batched in order of first appearance of their query.
+     */
+    static void writeAll( Collection<? extends ActiveRecord<?>> saves, Collection<? extends ActiveRecord<?>> deletes )
+        throws SQLException
+    {
+        Map<String, Batch> batches = new LinkedHashMap<>();
+        collectSaves( saves, batches );
+        collectDeletes( deletes, batches );
+        executeBatches( batches.values() );
+    }
+
+    private static void collectSaves( Collection<? extends ActiveRecord<?>> records, Map<String, Batch> batches )
+    {
+        for (ActiveRecord<?> record : records) {
+            ArrayList<Object> args = new ArrayList<>();
+            boolean existing = record.existInDatabase();
+            Transactions.saving( record, !existing );
+            if ( existing ) {
+                String query = record.buildUpdateQuery( args );
+                if ( query != null ) {
+                    batchOf( batches, record.clazz, Operation.UPDATE, query ).add( record, args );
+                }
+            } else {
+                batchOf( batches, record.clazz, Operation.INSERT, record.buildInsertionQuery( args ) ).add( record, args );
+            }
+        }
+    }
+
+    private static void collectDeletes( Collection<? extends ActiveRecord<?>> records, Map<String, Batch> batches )
+    {
+        for (ActiveRecord<?> record : records) {
+            ArrayList<Object> args = new ArrayList<>();
+            String query = record.buildDeletionQuery( args );
+            batchOf( batches, record.clazz, Operation.DELETE, query ).add( record, args );
+        }
+    }
+
+    /**
+     * Set how many parameters a single statement can bind at most, according to the database driver limit.
+     * Default is {@value #DEFAULT_MAXIMUM_PARAMETERS}.
+     * @see #insertAll(Collection)
+     */
+    public static void setMaximumParameters(int maximumParameters) {
+        if (maximumParameters <= 0) {
+            throw new IllegalArgumentException( "Maximum parameters must be positive, got " + maximumParameters );
+        }
+        ActiveRecord.maximumParameters = maximumParameters;
+    }
+
+    /**
+     * Insert all the given new instances in the target database, using multi-row insertions.
+     * <pre>
+     * List&lt;Contact> contacts = ...
+     * ActiveRecord.insertAll( contacts );
+     * </pre>
+     * <p>
+     *   Instances of the same class are inserted with statements like
+     *   <code>INSERT INTO Contact (...) VALUES (?, ...), (?, ...), ...</code>, each of them inserting as many rows as
+     *   possible without binding more than the {@linkplain #setMaximumParameters(int) maximum number of parameters}.
+     *   Generated primary keys are written into the instances, provided the driver returns the keys of every row of a
+     *   statement.
+     * </p>
+     * @param records The instances to insert, possibly of different classes. None of them may have a primary key.
+     * @throws IllegalArgumentException When an instance has a primary key, so should be updated instead.
+     * @throws SQLException This may failed, sorry. Statements already executed are not rolled back, unless run in a
+     * transaction.
+     * @see #saveAll(Collection)
+     */
+    public static void insertAll(Collection<? extends ActiveRecord<?>> records)
+        throws SQLException
+    {
+        Map<Class<?>, List<ActiveRecord<?>>> recordsByClass = new LinkedHashMap<>();
+        for (ActiveRecord<?> record : records) {
+            if ( record.existInDatabase() ) {
+                throw new IllegalArgumentException( "Unable to insert " + record + ": it already has a primary key" );
+            }
+            Transactions.saving( record, true );
+            List<ActiveRecord<?>> sameClassRecords = recordsByClass.get( record.clazz );
+            if ( sameClassRecords == null ) {
+                sameClassRecords = new ArrayList<>();
+                recordsByClass.put( record.clazz, sameClassRecords );
+            }
+            sameClassRecords.add( record );
+        }
+        Connection connection = Connections.acquire();
         try {
-            Query.WhereQuery whereClause = null;
-            for (Field field : clazz.getDeclaredFields()) {
-                field.setAccessible(true);
-                Object arg = field.get(this);
-                if ( arg != null) {
-                    String fieldName = field.getName();
-                    if (whereClause == null) {
-                        whereClause = Query.where( fieldName );
-                    } else {
-                        whereClause.and(fieldName);
+            for (Map.Entry<Class<?>, List<ActiveRecord<?>>> entry : recordsByClass.entrySet()) {
+                insertRows( connection, EntityMetadata.of( entry.getKey() ), entry.getValue() );
+            }
+        } finally {
+            Connections.release( connection );
+        }
+        saved( records );
+    }
+
+    private static void insertRows( Connection connection, EntityMetadata metadata, List<ActiveRecord<?>> records )
+        throws SQLException
+    {
+        int rowsPerStatement = Math.max( 1, maximumParameters / metadata.getColumns().length );
+        for (int from = 0; from < records.size(); from += rowsPerStatement) {
+            List<ActiveRecord<?>> rows = records.subList( from, Math.min( from + rowsPerStatement, records.size() ) );
+            List<Object> args = new ArrayList<>( rows.size() * metadata.getColumns().length );
+            for (ActiveRecord<?> row : rows) {
+                row.collectInsertionArguments( metadata, args );
+            }
+            String query = SqlTemplates.insert( metadata, rows.size() );
+            boolean generatedKeys = metadata.getPrimaryKey() != null;
+            try (StatementCache.Lease lease = StatementCache.prepare( connection, query, generatedKeys )) {
+                PreparedStatement statement = lease.statement();
+                bindArguments( statement, args );
+                LoggerFactory.getLogger( metadata.getType() ).debug( "Executing query '{}' with values {}", query, args );
+                long start = System.nanoTime();
+                statement.executeUpdate();
+                executed( metadata.getType(), Operation.INSERT, query, args, start );
+                if ( generatedKeys ) {
+                    readGeneratedKeys( statement, metadata, rows );
+                }
+            }
+        }
+    }
+
+    private static Batch batchOf( Map<String, Batch> batches, Class<?> type, Operation operation, String query )
+    {
+        Batch batch = batches.get( query );
+        if ( batch == null ) {
+            batch = new Batch( type, operation, query );
+            batches.put( query, batch );
+        }
+        return batch;
+    }
+
+    private static void executeBatches( Collection<Batch> batches )
+        throws SQLException
+    {
+        Connection connection = Connections.acquire();
+        try {
+            for (Batch batch : batches) {
+                batch.execute( connection, batchSize );
+            }
+        } finally {
+            Connections.release( connection );
+        }
+    }
+
+    /**
+     * Rows sharing the same SQL, to send to the database together.
+     */
+    private static final class Batch
+    {
+        private final Class<?> type;
+        private final Operation operation;
+        private final String query;
+        private final List<ActiveRecord<?>> records = new ArrayList<>();
+        private final List<List<Object>> rows = new ArrayList<>();
+
+        private Batch( Class<?> type, Operation operation, String query )
+        {
+            this.type = type;
+            this.operation = operation;
+            this.query = query;
+        }
+
+        private void add( ActiveRecord<?> record, List<Object> args )
+        {
+            records.add( record );
+            rows.add( args );
+        }
+
+        private void execute( Connection connection, int batchSize )
+            throws SQLException
+        {
+            EntityMetadata metadata = EntityMetadata.of( type );
+            boolean generatedKeys = operation == Operation.INSERT && metadata.getPrimaryKey() != null;
+            try (StatementCache.Lease lease = StatementCache.prepare( connection, query, generatedKeys )) {
+                PreparedStatement statement = lease.statement();
+                try {
+                    int from = 0;
+                    while ( from < rows.size() ) {
+                        List<List<Object>> chunk = rows.subList( from, Math.min( from + batchSize, rows.size() ) );
+                        for ( List<Object> args : chunk ) {
+                            bindArguments( statement, args );
+                            statement.addBatch();
+                        }
+                        LoggerFactory.getLogger( type ).debug( "Executing batch query '{}' with values {}", query, chunk );
+                        long start = System.nanoTime();
+                        statement.executeBatch();
+                        executed( type, operation, query, chunk, start );
+                        if ( generatedKeys ) {
+                            readGeneratedKeys( statement, metadata, records.subList( from, from + chunk.size() ) );
+                        }
+                        from += chunk.size();
                     }
-                    whereClause.isEqualTo("?");
-                    args.add(arg);
+                } catch ( SQLException cause ) {
+                    statement.clearBatch();
+                    throw cause;
                 }
             }
-            return Query.delete().from(clazz.getSimpleName()) + whereClause.toString();
-        } catch (IllegalAccessException ignored) {}
-        return null;
+        }
     }
 }
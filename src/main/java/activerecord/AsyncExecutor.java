@@ -0,0 +1,172 @@
+package activerecord;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor running the asynchronous operations of active records, and its queue depth and in-flight counts.
+ *
+ * <p>
+ *   Unless {@linkplain #configure(ExecutorService) replaced}, operations run on a bounded pool of daemon threads,
+ *   created on first use: {@value #DEFAULT_THREADS} threads, and at most {@value #DEFAULT_QUEUE_CAPACITY} waiting
+ *   operations, further ones being rejected. Counts are kept by wrapping each operation, so they are exact whatever
+ *   the executor.
+ * </p>
+ */
+final class AsyncExecutor
+{
+    static final int DEFAULT_THREADS = 16;
+
+    static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private static final AtomicInteger queued = new AtomicInteger();
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+
+    private static volatile ListeningExecutorService executor;
+
+    /**
+     * Whether the executor was created here, so is shut down when replaced.
+     */
+    private static boolean owned;
+
+    private AsyncExecutor() {}
+
+    static void configure( int threads, int queueCapacity )
+    {
+        if ( threads <= 0 || queueCapacity < 0 ) {
+            throw new IllegalArgumentException( "Threads must be positive and queue capacity positive or zero, got "
+                                                + threads + " and " + queueCapacity );
+        }
+        replace( bounded( threads, queueCapacity ), true );
+    }
+
+    static void configure( ExecutorService executor )
+    {
+        replace( MoreExecutors.listeningDecorator( executor ), false );
+    }
+
+    /**
+     * @throws RejectedExecutionException When the executor is saturated or shut down.
+     */
+    static <V> ListenableFuture<V> submit( Callable<V> operation )
+    {
+        Task<V> task = new Task<>( operation );
+        queued.incrementAndGet();
+        ListenableFuture<V> future;
+        try {
+            future = executor().submit( (Callable<V>) task );
+        } catch ( RejectedExecutionException cause ) {
+            queued.decrementAndGet();
+            throw cause;
+        }
+        future.addListener( task, MoreExecutors.sameThreadExecutor() );
+        return future;
+    }
+
+    /**
+     * @return Number of operations submitted and not started yet.
+     */
+    static int queueDepth()
+    {
+        return queued.get();
+    }
+
+    /**
+     * @return Number of operations running.
+     */
+    static int inFlight()
+    {
+        return inFlight.get();
+    }
+
+    private static ListeningExecutorService executor()
+    {
+        ListeningExecutorService executor = AsyncExecutor.executor;
+        if ( executor == null ) {
+            synchronized ( AsyncExecutor.class ) {
+                executor = AsyncExecutor.executor;
+                if ( executor == null ) {
+                    executor = bounded( DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY );
+                    AsyncExecutor.executor = executor;
+                    owned = true;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static synchronized void replace( ListeningExecutorService replacement, boolean replacementOwned )
+    {
+        ListeningExecutorService previous = executor;
+        if ( previous != null && owned ) {
+            previous.shutdown();
+        }
+        executor = replacement;
+        owned = replacementOwned;
+    }
+
+    private static ListeningExecutorService bounded( int threads, int queueCapacity )
+    {
+        BlockingQueue<Runnable> queue = queueCapacity == 0 ? new SynchronousQueue<Runnable>()
+                                                           : new ArrayBlockingQueue<Runnable>( queueCapacity );
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            threads, threads, 1, TimeUnit.MINUTES, queue,
+            new ThreadFactoryBuilder().setNameFormat( "activerecord-async-%d" ).setDaemon( true ).build() );
+        pool.allowCoreThreadTimeOut( true );
+        return MoreExecutors.listeningDecorator( pool );
+    }
+
+    /**
+     * An operation counted as queued until it starts, then as in flight until it ends. Run as listener of its own
+     * future, it stops counting as queued if cancelled before starting.
+     */
+    private static final class Task<V>
+        implements Callable<V>, Runnable
+    {
+        private final Callable<V> operation;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private Task( Callable<V> operation )
+        {
+            this.operation = operation;
+        }
+
+        @Override
+        public V call()
+            throws Exception
+        {
+            if ( !started.compareAndSet( false, true ) ) {
+                return null;
+            }
+            queued.decrementAndGet();
+            inFlight.incrementAndGet();
+            try {
+                return operation.call();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            if ( started.compareAndSet( false, true ) ) {
+                queued.decrementAndGet();
+            }
+        }
+    }
+}
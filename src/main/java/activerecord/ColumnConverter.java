@@ -0,0 +1,30 @@
+package activerecord;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Read values of one Java type from result sets, and bind them to statement parameters.
+ *
+ * <p>Implementations should use the typed JDBC methods, like {@link ResultSet#getInt(int)}, and must handle SQL nulls.</p>
+ *
+ * @param <T> Type of the converted values.
+ * @see ActiveRecord#registerConverter(Class, ColumnConverter)
+ */
+public interface ColumnConverter<T>
+{
+    /**
+     * @param index Position of the column in the current row, starting at 1.
+     * @return The value of the column, or <code>null</code> if it is SQL null.
+     */
+    T read( ResultSet resultSet, int index )
+        throws SQLException;
+
+    /**
+     * @param index Position of the parameter in the statement, starting at 1.
+     * @param value The value to bind, never <code>null</code>.
+     */
+    void bind( PreparedStatement statement, int index, T value )
+        throws SQLException;
+}
@@ -0,0 +1,324 @@
+package activerecord;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * A lightweight bounded pool of connections on top of another data source.
+ *
+ * <p>Plug it into active records like this:</p>
+ * <pre>
+ * DataSource driverDataSource = ...
+ * ActiveRecord.setDataSource( new ConnectionPool( driverDataSource, 16, 5, TimeUnit.MINUTES ) );
+ * </pre>
+ * <p>
+ *   At most <code>maximumSize</code> connections are borrowed at the same time, other borrowers wait for one to be
+ *   given back, up to the {@linkplain #setBorrowTimeout(long, TimeUnit) borrow timeout}. Closing a borrowed connection
+ *   gives it back to the pool, after rolling back any pending transaction. The most recently given back connection is
+ *   borrowed first, so that connections unused for longer than <code>idleTimeout</code> can be closed.
+ * </p>
+ */
+public class ConnectionPool
+    implements DataSource
+{
+    private final DataSource target;
+    private final Semaphore permits;
+    private final long idleTimeoutNanos;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private volatile long borrowTimeoutNanos = TimeUnit.SECONDS.toNanos( 30 );
+    private volatile boolean closed;
+
+    /**
+     * @param target The data source creating physical connections.
+     * @param maximumSize The maximum number of connections borrowed at the same time.
+     * @param idleTimeout How long a connection can stay unused in the pool before being closed.
+     * @param unit The unit of <code>idleTimeout</code>.
+     */
+    public ConnectionPool( DataSource target, int maximumSize, long idleTimeout, TimeUnit unit )
+    {
+        if ( maximumSize <= 0 ) {
+            throw new IllegalArgumentException( "Pool size must be positive, got " + maximumSize );
+        }
+        this.target = target;
+        this.permits = new Semaphore( maximumSize );
+        this.idleTimeoutNanos = unit.toNanos( idleTimeout );
+    }
+
+    /**
+     * Set how long {@link #getConnection()} waits for a connection when all of them are borrowed. Default is 30 seconds.
+     */
+    public void setBorrowTimeout( long timeout, TimeUnit unit )
+    {
+        this.borrowTimeoutNanos = unit.toNanos( timeout );
+    }
+
+    /**
+     * @return The number of connections currently idle in the pool.
+     */
+    public int getIdleCount()
+    {
+        return idle.size();
+    }
+
+    /**
+     * Borrow a connection, to {@linkplain Connection#close() close} in order to give it back.
+     * @throws SQLTransientConnectionException When no connection could be borrowed within the borrow timeout.
+     */
+    @Override
+    public Connection getConnection()
+        throws SQLException
+    {
+        if ( closed ) {
+            throw new SQLException( "Connection pool is closed" );
+        }
+        try {
+            if ( !permits.tryAcquire( borrowTimeoutNanos, TimeUnit.NANOSECONDS ) ) {
+                throw new SQLTransientConnectionException( "No connection available within " + TimeUnit.NANOSECONDS.toMillis( borrowTimeoutNanos ) + " ms" );
+            }
+        } catch ( InterruptedException cause ) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException( "Interrupted while waiting for a connection", cause );
+        }
+        try {
+            return borrow().handle();
+        } catch ( SQLException|RuntimeException cause ) {
+            permits.release();
+            throw cause;
+        }
+    }
+
+    @Override
+    public Connection getConnection( String username, String password )
+        throws SQLException
+    {
+        throw new SQLFeatureNotSupportedException( "Pooled connections all share the credentials of the target data source" );
+    }
+
+    /**
+     * Close the idle connections and every borrowed connection when given back.
+     */
+    public void close()
+    {
+        closed = true;
+        PooledConnection connection;
+        while ( ( connection = idle.pollFirst() ) != null ) {
+            connection.destroy();
+        }
+    }
+
+    private PooledConnection borrow()
+        throws SQLException
+    {
+        PooledConnection connection;
+        while ( ( connection = idle.pollFirst() ) != null ) {
+            if ( !connection.isIdleSince( System.nanoTime() - idleTimeoutNanos ) ) {
+                return connection;
+            }
+            connection.destroy();
+        }
+        return new PooledConnection( target.getConnection() );
+    }
+
+    private void giveBack( PooledConnection connection )
+    {
+        try {
+            if ( closed || !connection.reset() ) {
+                connection.destroy();
+            } else {
+                idle.offerFirst( connection );
+            }
+        } finally {
+            permits.release();
+        }
+        evictIdleConnections();
+    }
+
+    private void evictIdleConnections()
+    {
+        long deadline = System.nanoTime() - idleTimeoutNanos;
+        PooledConnection eldest;
+        while ( ( eldest = idle.peekLast() ) != null && eldest.isIdleSince( deadline ) ) {
+            if ( idle.removeLastOccurrence( eldest ) ) {
+                eldest.destroy();
+            }
+        }
+    }
+
+    /**
+     * @return The physical connection behind a connection borrowed from a pool, or the given connection itself.
+     */
+    static Connection physical( Connection connection )
+    {
+        if ( Proxy.isProxyClass( connection.getClass() ) ) {
+            InvocationHandler handler = Proxy.getInvocationHandler( connection );
+            if ( handler instanceof Handle ) {
+                return ( (Handle) handler ).connection.physical;
+            }
+        }
+        return connection;
+    }
+
+    static boolean isPooled( Connection connection )
+    {
+        return physical( connection ) != connection;
+    }
+
+    @Override
+    public PrintWriter getLogWriter()
+        throws SQLException
+    {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter( PrintWriter out )
+        throws SQLException
+    {
+        target.setLogWriter( out );
+    }
+
+    @Override
+    public void setLoginTimeout( int seconds )
+        throws SQLException
+    {
+        target.setLoginTimeout( seconds );
+    }
+
+    @Override
+    public int getLoginTimeout()
+        throws SQLException
+    {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger()
+        throws SQLFeatureNotSupportedException
+    {
+        throw new SQLFeatureNotSupportedException( "Connection pool does not use java.util.logging" );
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        return iface.isInstance( this ) ? iface.cast( this ) : target.unwrap( iface );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+        throws SQLException
+    {
+        return iface.isInstance( this ) || target.isWrapperFor( iface );
+    }
+
+    private final class PooledConnection
+    {
+        private final Connection physical;
+        private long idleSince;
+
+        private PooledConnection( Connection physical )
+        {
+            this.physical = physical;
+        }
+
+        private Connection handle()
+        {
+            return (Connection) Proxy.newProxyInstance( Connection.class.getClassLoader(),
+                                                        new Class<?>[] { Connection.class },
+                                                        new Handle( this ) );
+        }
+
+        private boolean isIdleSince( long time )
+        {
+            return idleSince - time <= 0;
+        }
+
+        /**
+         * Make this connection ready for the next borrower.
+         * @return <code>false</code> if this connection is no more usable.
+         */
+        private boolean reset()
+        {
+            try {
+                if ( physical.isClosed() ) {
+                    return false;
+                }
+                if ( !physical.getAutoCommit() ) {
+                    physical.rollback();
+                    physical.setAutoCommit( true );
+                }
+                idleSince = System.nanoTime();
+                return true;
+            } catch ( SQLException ignored ) {
+                return false;
+            }
+        }
+
+        private void destroy()
+        {
+            StatementCache.discard( physical );
+            try {
+                physical.close();
+            } catch ( SQLException ignored ) {}
+        }
+    }
+
+    /**
+     * What a borrower sees of a pooled connection: closing it gives the connection back to the pool.
+     */
+    private final class Handle
+        implements InvocationHandler
+    {
+        private final PooledConnection connection;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Handle( PooledConnection connection )
+        {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke( Object proxy, Method method, Object[] args )
+            throws Throwable
+        {
+            switch ( method.getName() ) {
+                case "close":
+                    if ( closed.compareAndSet( false, true ) ) {
+                        giveBack( connection );
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || connection.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode( proxy );
+                case "toString":
+                    return "Pooled " + connection.physical;
+                default:
+                    if ( closed.get() ) {
+                        throw new SQLException( "Connection already given back to the pool" );
+                    }
+                    try {
+                        return method.invoke( connection.physical, args );
+                    } catch ( InvocationTargetException cause ) {
+                        throw cause.getCause();
+                    }
+            }
+        }
+    }
+}
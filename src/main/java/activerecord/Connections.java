@@ -0,0 +1,115 @@
+package activerecord;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Where active records get their connections from.
+ *
+ * <p>
+ *   A connection bound to the current thread is used first, so that every operation of a thread-bound transaction
+ *   runs on the same connection. Otherwise each operation borrows its own connection from the
+ *   {@linkplain #setDataSource(DataSource) data source}, and closes it when done. Without data source, the legacy
+ *   shared {@link ActiveRecord#connection} is used.
+ * </p>
+ */
+final class Connections
+{
+    private static volatile DataSource dataSource;
+
+    private static final ThreadLocal<Connection> bound = new ThreadLocal<>();
+
+    private Connections() {}
+
+    static void setDataSource( DataSource dataSource )
+    {
+        Connections.dataSource = dataSource;
+    }
+
+    static DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    static Connection acquire()
+        throws SQLException
+    {
+        Connection connection = bound.get();
+        if ( connection != null ) {
+            return connection;
+        }
+        return open();
+    }
+
+    static void release( Connection connection )
+        throws SQLException
+    {
+        if ( connection != bound.get() ) {
+            close( connection );
+        }
+    }
+
+    /**
+     * Bind a connection to the current thread: until {@link #unbind()}, every operation of this thread uses it.
+     * @return The bound connection.
+     * @throws IllegalStateException When a connection is already bound to this thread.
+     */
+    static Connection bind()
+        throws SQLException
+    {
+        if ( bound.get() != null ) {
+            throw new IllegalStateException( "A connection is already bound to " + Thread.currentThread() );
+        }
+        Connection connection = open();
+        bound.set( connection );
+        return connection;
+    }
+
+    /**
+     * @return The connection bound to the current thread, or <code>null</code> if none.
+     */
+    static Connection bound()
+    {
+        return bound.get();
+    }
+
+    /**
+     * Release the connection bound to the current thread.
+     */
+    static void unbind()
+        throws SQLException
+    {
+        Connection connection = bound.get();
+        bound.remove();
+        if ( connection != null ) {
+            close( connection );
+        }
+    }
+
+    private static Connection open()
+        throws SQLException
+    {
+        DataSource source = dataSource;
+        if ( source != null ) {
+            return source.getConnection();
+        }
+        Connection connection = ActiveRecord.connection;
+        if ( connection == null ) {
+            throw new SQLException( "Neither data source nor connection is configured" );
+        }
+        return connection;
+    }
+
+    private static void close( Connection connection )
+        throws SQLException
+    {
+        if ( connection == ActiveRecord.connection ) {
+            return;
+        }
+        if ( !ConnectionPool.isPooled( connection ) ) {
+            StatementCache.discard( connection );
+        }
+        connection.close();
+    }
+}
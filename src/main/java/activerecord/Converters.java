@@ -0,0 +1,372 @@
+package activerecord;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the {@link ColumnConverter}s used to read columns and bind parameters, by Java type.
+ *
+ * <p>
+ *   A type is converted, in order of preference, by the converter {@linkplain #register(Class, ColumnConverter)
+ *   registered} for it, by a standard converter using the typed JDBC methods, by name for enums, or else by
+ *   {@link ResultSet#getObject(int)} and {@link PreparedStatement#setObject(int, Object)}.
+ * </p>
+ */
+final class Converters
+{
+    private static final Map<Class<?>, ColumnConverter<?>> standards = new HashMap<>();
+
+    static {
+        for ( Standard standard : Standard.values() ) {
+            for ( Class<?> type : standard.types ) {
+                standards.put( type, standard );
+            }
+        }
+    }
+
+    private static final ConcurrentMap<Class<?>, ColumnConverter<?>> registered = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Class<?>, ColumnConverter<?>> resolved = new ConcurrentHashMap<>();
+
+    private Converters() {}
+
+    /**
+     * Converters of columns are resolved when the metadata of their entity class is built, so this must be called
+     * before the first use of the entity classes having fields of the given type.
+     */
+    static <T> void register( Class<T> type, ColumnConverter<T> converter )
+    {
+        if ( type.isPrimitive() ) {
+            throw new IllegalArgumentException( "Converters of primitive types cannot be replaced, got " + type );
+        }
+        registered.put( type, converter );
+        resolved.clear();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    static <T> ColumnConverter<T> of( Class<T> type )
+    {
+        ColumnConverter<?> converter = resolved.get( type );
+        if ( converter == null ) {
+            converter = resolve( type );
+            resolved.put( type, converter );
+        }
+        return (ColumnConverter<T>) converter;
+    }
+
+    /**
+     * Bind arguments with the converter of their own class.
+     */
+    @SuppressWarnings( "unchecked" )
+    static void bind( PreparedStatement statement, List<Object> args )
+        throws SQLException
+    {
+        int index = 1;
+        for ( Object arg : args ) {
+            if ( arg == null ) {
+                statement.setObject( index++, null );
+            } else {
+                ( (ColumnConverter<Object>) of( arg.getClass() ) ).bind( statement, index++, arg );
+            }
+        }
+    }
+
+    /**
+     * @return A copy of the given value if it is mutable, as byte arrays and dates are, else the value itself.
+     */
+    static Object copy( Object value )
+    {
+        if ( value instanceof byte[] ) {
+            return ( (byte[]) value ).clone();
+        }
+        if ( value instanceof java.util.Date ) {
+            return ( (java.util.Date) value ).clone();
+        }
+        return value;
+    }
+
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    private static ColumnConverter<?> resolve( Class<?> type )
+    {
+        ColumnConverter<?> converter = registered.get( type );
+        if ( converter == null ) {
+            converter = standards.get( type );
+        }
+        if ( converter == null && Enum.class.isAssignableFrom( type ) && type != Enum.class ) {
+            Class<?> enumType = type.isEnum() ? type : type.getSuperclass();
+            converter = registered.containsKey( enumType ) ? registered.get( enumType ) : new EnumConverter( enumType );
+        }
+        return converter == null ? Standard.OBJECT : converter;
+    }
+
+    private static final class EnumConverter<E extends Enum<E>>
+        implements ColumnConverter<E>
+    {
+        private final Class<E> type;
+
+        private EnumConverter( Class<E> type )
+        {
+            this.type = type;
+        }
+
+        @Override
+        public E read( ResultSet resultSet, int index )
+            throws SQLException
+        {
+            String name = resultSet.getString( index );
+            return name == null ? null : Enum.valueOf( type, name );
+        }
+
+        @Override
+        public void bind( PreparedStatement statement, int index, E value )
+            throws SQLException
+        {
+            statement.setString( index, value.name() );
+        }
+    }
+
+    /**
+     * Converters of the types JDBC knows.
+     */
+    private enum Standard
+        implements ColumnConverter<Object>
+    {
+        STRING( String.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                return resultSet.getString( index );
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setString( index, (String) value );
+            }
+        },
+        INTEGER( Integer.class, int.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                int value = resultSet.getInt( index );
+                return value == 0 && resultSet.wasNull() ? null : value;
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setInt( index, (Integer) value );
+            }
+        },
+        LONG( Long.class, long.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                long value = resultSet.getLong( index );
+                return value == 0 && resultSet.wasNull() ? null : value;
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setLong( index, (Long) value );
+            }
+        },
+        SHORT( Short.class, short.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                short value = resultSet.getShort( index );
+                return value == 0 && resultSet.wasNull() ? null : value;
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setShort( index, (Short) value );
+            }
+        },
+        BYTE( Byte.class, byte.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                byte value = resultSet.getByte( index );
+                return value == 0 && resultSet.wasNull() ? null : value;
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setByte( index, (Byte) value );
+            }
+        },
+        DOUBLE( Double.class, double.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                double value = resultSet.getDouble( index );
+                return value == 0 && resultSet.wasNull() ? null : value;
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setDouble( index, (Double) value );
+            }
+        },
+        FLOAT( Float.class, float.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                float value = resultSet.getFloat( index );
+                return value == 0 && resultSet.wasNull() ? null : value;
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setFloat( index, (Float) value );
+            }
+        },
+        BOOLEAN( Boolean.class, boolean.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                boolean value = resultSet.getBoolean( index );
+                return !value && resultSet.wasNull() ? null : value;
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setBoolean( index, (Boolean) value );
+            }
+        },
+        BIG_DECIMAL( BigDecimal.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                return resultSet.getBigDecimal( index );
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setBigDecimal( index, (BigDecimal) value );
+            }
+        },
+        DATE( java.sql.Date.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                return resultSet.getDate( index );
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setDate( index, (java.sql.Date) value );
+            }
+        },
+        TIME( Time.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                return resultSet.getTime( index );
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setTime( index, (Time) value );
+            }
+        },
+        TIMESTAMP( Timestamp.class, java.util.Date.class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                return resultSet.getTimestamp( index );
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                java.util.Date date = (java.util.Date) value;
+                statement.setTimestamp( index, date instanceof Timestamp ? (Timestamp) date : new Timestamp( date.getTime() ) );
+            }
+        },
+        BYTES( byte[].class ) {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                return resultSet.getBytes( index );
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setBytes( index, (byte[]) value );
+            }
+        },
+        /**
+         * Let the driver inspect the type of each value.
+         */
+        OBJECT {
+            @Override
+            public Object read( ResultSet resultSet, int index )
+                throws SQLException
+            {
+                return resultSet.getObject( index );
+            }
+
+            @Override
+            public void bind( PreparedStatement statement, int index, Object value )
+                throws SQLException
+            {
+                statement.setObject( index, value );
+            }
+        };
+
+        private final Class<?>[] types;
+
+        Standard( Class<?>... types )
+        {
+            this.types = types;
+        }
+    }
+}
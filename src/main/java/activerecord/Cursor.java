@@ -0,0 +1,215 @@
+package activerecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterate over the rows of a selection query, hydrating one instance at a time.
+ *
+ * <p>Only the current row is held in memory, so a cursor must be closed when no more used, like this:</p>
+ * <pre>
+ * try ( Cursor&lt;Contact> contacts = candidate.iterate() ) {
+ *   for ( Contact contact : contacts ) {
+ *     // ...
+ *   }
+ * }
+ * </pre>
+ * <p>
+ *   The cursor closes itself, releasing its statement, result set and connection, once the last row has been read or
+ *   when reading a row fails. A cursor can be iterated only once. The {@linkplain Metrics latency} of its query only
+ *   adds up the time spent in the cursor, executing the query, then fetching and hydrating rows: the time the caller
+ *   spends handling each row is left out.
+ * </p>
+ * @param <T> Type of the iterated objects: active records, or arrays of column values.
+ * @see ActiveRecord#iterate()
+ * @see ActiveRecord#setFetchSize(int)
+ */
+public final class Cursor<T>
+    implements Iterator<T>, Iterable<T>, AutoCloseable
+{
+    private final Class<?> type;
+    private final RowMapper<T> mapper;
+    private final String query;
+    private final List<Object> args;
+    private final Connection connection;
+    private final StatementCache.Lease lease;
+    private final ResultSet resultSet;
+    /**
+     * Time spent in this cursor so far, in nanoseconds.
+     */
+    private long elapsed;
+    private long rows;
+    private boolean fetched;
+    private boolean closed;
+
+    /**
+     * Execute a selection query.
+     * @param fetchSize Number of rows to fetch from the database at once, or <code>0</code> to let the driver decide.
+     */
+    static <T> Cursor<T> open( Class<?> type, RowMapper<T> mapper, String query, List<Object> args, int fetchSize )
+        throws SQLException
+    {
+        Connection connection = Connections.acquire();
+        StatementCache.Lease lease = null;
+        try {
+            lease = StatementCache.prepare( connection, query );
+            PreparedStatement statement = lease.statement();
+            ActiveRecord.bindArguments( statement, args );
+            if ( fetchSize > 0 ) {
+                statement.setFetchSize( fetchSize );
+            }
+            LoggerFactory.getLogger( type ).debug( "Executing query '{}' with values {}", query, args );
+            long start = System.nanoTime();
+            ResultSet resultSet = statement.executeQuery();
+            RowMapper<T> resolved = mapper.resolve( query, resultSet );
+            return new Cursor<>( type, resolved, query, args, connection, lease, resultSet, System.nanoTime() - start );
+        } catch ( SQLException|RuntimeException cause ) {
+            try {
+                if ( lease != null ) {
+                    lease.close();
+                }
+            } finally {
+                Connections.release( connection );
+            }
+            throw cause;
+        }
+    }
+
+    private Cursor( Class<?> type, RowMapper<T> mapper, String query, List<Object> args, Connection connection,
+                    StatementCache.Lease lease, ResultSet resultSet, long elapsed )
+    {
+        this.type = type;
+        this.mapper = mapper;
+        this.query = query;
+        this.args = args;
+        this.connection = connection;
+        this.lease = lease;
+        this.resultSet = resultSet;
+        this.elapsed = elapsed;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( !fetched && !closed ) {
+            long start = System.nanoTime();
+            try {
+                fetched = resultSet.next();
+                elapsed += System.nanoTime() - start;
+                if ( !fetched ) {
+                    close();
+                }
+            } catch ( SQLException cause ) {
+                throw failure( cause );
+            }
+        }
+        return fetched;
+    }
+
+    @Override
+    public T next()
+    {
+        if ( !hasNext() ) {
+            throw new NoSuchElementException( "No more rows for query '" + query + "'" );
+        }
+        fetched = false;
+        long start = System.nanoTime();
+        try {
+            T instance = mapper.map( resultSet );
+            elapsed += System.nanoTime() - start;
+            rows++;
+            return instance;
+        } catch ( SQLException|RuntimeException cause ) {
+            throw failure( cause );
+        }
+    }
+
+    /**
+     * Read the next row, for callers handling {@link SQLException} themselves.
+     * @return The next instance, or <code>null</code> when there is no more rows.
+     */
+    T read()
+        throws SQLException
+    {
+        if ( closed ) {
+            return null;
+        }
+        long start = System.nanoTime();
+        if ( !fetched && !resultSet.next() ) {
+            elapsed += System.nanoTime() - start;
+            close();
+            return null;
+        }
+        fetched = false;
+        T instance = mapper.map( resultSet );
+        elapsed += System.nanoTime() - start;
+        rows++;
+        return instance;
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException( "Use ActiveRecord.delete() to remove rows" );
+    }
+
+    /**
+     * @return This cursor itself, to use it in a for-each loop.
+     */
+    @Override
+    public Iterator<T> iterator()
+    {
+        return this;
+    }
+
+    /**
+     * Release the result set, the statement and the connection of this cursor. Closing twice has no effect.
+     */
+    @Override
+    public void close()
+        throws SQLException
+    {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        fetched = false;
+        try {
+            try {
+                resultSet.close();
+            } finally {
+                lease.close();
+            }
+        } finally {
+            Connections.release( connection );
+        }
+        ActiveRecord.executedIn( type, Operation.SELECT, query, args, elapsed );
+        logger().debug( "Read {} rows from query '{}'", rows, query );
+    }
+
+    private RuntimeException failure( Exception cause )
+    {
+        try {
+            close();
+        } catch ( SQLException suppressed ) {
+            cause.addSuppressed( suppressed );
+        }
+        if ( cause instanceof RuntimeException ) {
+            return (RuntimeException) cause;
+        }
+        return new RuntimeException( "Unable to read rows of query '" + query + "'", cause );
+    }
+
+    private Logger logger()
+    {
+        return LoggerFactory.getLogger( type );
+    }
+}
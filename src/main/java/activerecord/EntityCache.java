@@ -0,0 +1,198 @@
+package activerecord;
+
+import activerecord.annotation.Cached;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Process-wide cache of the rows of a {@link Cached} active record class, by primary key.
+ *
+ * <p>
+ *   Rows are cached as arrays of column values, never as instances: every hit returns a new instance, so that
+ *   instances modified by a thread are never seen by the others. Mutable values, byte arrays and dates, are copied in
+ *   and out of the cache for the same reason. Rows read or written in a transaction are only cached once it is
+ *   {@linkplain Transactions#afterCommit(Runnable) committed}.
+ * </p>
+ * <p>
+ *   Every write to the cache, on save or delete, increments its generation. Rows read from the database are only
+ *   cached if no write happened since their query was executed: a row read before a concurrent save or delete never
+ *   replaces the newer row, nor brings back the deleted one.
+ * </p>
+ */
+final class EntityCache
+{
+    /**
+     * @return The cache of the class described by the given metadata, or <code>null</code> if the class is not
+     * {@link Cached}.
+     * @throws IllegalArgumentException When the class is cached without primary key.
+     */
+    static EntityCache create( EntityMetadata metadata )
+    {
+        Cached cached = metadata.getType().getAnnotation( Cached.class );
+        if ( cached == null ) {
+            return null;
+        }
+        if ( metadata.getPrimaryKey() == null ) {
+            throw new IllegalArgumentException( metadata.getType().getName() + " must have a primary key to be cached" );
+        }
+        return new EntityCache( metadata, cached );
+    }
+
+    private final EntityMetadata metadata;
+    private final Cache<Object, Object[]> rows;
+
+    /**
+     * Number of writes to the cache so far, only changed while holding the lock of this cache.
+     */
+    private volatile long generation;
+
+    private EntityCache( EntityMetadata metadata, Cached cached )
+    {
+        this.metadata = metadata;
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize( cached.maximumSize() ).recordStats();
+        if ( cached.expireAfterWrite() > 0 ) {
+            builder.expireAfterWrite( cached.expireAfterWrite(), cached.timeUnit() );
+        }
+        if ( cached.expireAfterAccess() > 0 ) {
+            builder.expireAfterAccess( cached.expireAfterAccess(), cached.timeUnit() );
+        }
+        this.rows = builder.build();
+    }
+
+    /**
+     * @return A new instance of the cached row of the given primary key, or <code>null</code> if not cached.
+     */
+    Object get( Object primaryKey )
+    {
+        if ( Transactions.isWritten( metadata.getType() ) ) {
+            // Cached rows may predate the writes of the current transaction
+            return null;
+        }
+        Object[] values = rows.getIfPresent( primaryKey );
+        if ( values == null ) {
+            return null;
+        }
+        Object instance = metadata.newInstance();
+        for ( EntityMetadata.Column column : metadata.getColumns() ) {
+            column.set( instance, Converters.copy( values[column.getIndex()] ) );
+        }
+        if ( instance instanceof ActiveRecord ) {
+            ( (ActiveRecord<?>) instance ).snapshot( values );
+        }
+        return instance;
+    }
+
+    /**
+     * @return The current generation of this cache: to take before executing a query whose rows may be
+     * {@linkplain #putLoaded(Object, long) cached}.
+     */
+    long generation()
+    {
+        return generation;
+    }
+
+    /**
+     * Cache or refresh the row of a fully populated instance, as it was just written to the database.
+     */
+    void put( Object instance )
+    {
+        final Object primaryKey = metadata.getPrimaryKey().get( instance );
+        if ( primaryKey == null ) {
+            return;
+        }
+        final Object[] values = values( instance );
+        Transactions.afterCommit( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized ( EntityCache.this ) {
+                    generation++;
+                    rows.put( primaryKey, values );
+                }
+            }
+        } );
+    }
+
+    /**
+     * Cache the row of a fully populated instance, as read from the database, unless the cache was written since.
+     * @param generation The {@linkplain #generation() generation} of this cache when the query was executed.
+     */
+    void putLoaded( Object instance, final long generation )
+    {
+        final Object primaryKey = metadata.getPrimaryKey().get( instance );
+        if ( primaryKey == null ) {
+            return;
+        }
+        final Object[] values = values( instance );
+        Transactions.afterCommit( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized ( EntityCache.this ) {
+                    if ( EntityCache.this.generation == generation ) {
+                        rows.put( primaryKey, values );
+                    }
+                }
+            }
+        } );
+    }
+
+    /**
+     * Forget the row of the given primary key, now and, after the refreshes already waiting for it, once the current
+     * transaction is committed.
+     */
+    void invalidate( final Object primaryKey )
+    {
+        Runnable invalidation = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized ( EntityCache.this ) {
+                    generation++;
+                    rows.invalidate( primaryKey );
+                }
+            }
+        };
+        invalidation.run();
+        Transactions.afterCommit( invalidation );
+    }
+
+    /**
+     * Forget every row, now and once the current transaction is committed.
+     */
+    void invalidateAll()
+    {
+        Runnable invalidation = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized ( EntityCache.this ) {
+                    generation++;
+                    rows.invalidateAll();
+                }
+            }
+        };
+        invalidation.run();
+        Transactions.afterCommit( invalidation );
+    }
+
+    CacheStats stats()
+    {
+        return rows.stats();
+    }
+
+    private Object[] values( Object instance )
+    {
+        EntityMetadata.Column[] columns = metadata.getColumns();
+        Object[] values = new Object[columns.length];
+        for ( EntityMetadata.Column column : columns ) {
+            values[column.getIndex()] = Converters.copy( column.get( instance ) );
+        }
+        return values;
+    }
+}
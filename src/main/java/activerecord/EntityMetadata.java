@@ -0,0 +1,243 @@
+package activerecord;
+
+import activerecord.annotation.PrimaryKey;
+import activerecord.annotation.References;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Mapping informations of an active record class: table name, ordered columns and primary key.
+ *
+ * <p>
+ *   Reflection is done once per class, the first time it is needed, then the result is shared by all threads. Fields
+ *   are read and written through the {@linkplain PropertyAccess#configured() configured} accessors.
+ * </p>
+ */
+final class EntityMetadata
+{
+    private static final ConcurrentMap<Class<?>, EntityMetadata> registry = new ConcurrentHashMap<>();
+
+    static EntityMetadata of( Class<?> clazz )
+    {
+        EntityMetadata metadata = registry.get( clazz );
+        if ( metadata == null ) {
+            EntityMetadata candidate = new EntityMetadata( clazz );
+            metadata = registry.putIfAbsent( clazz, candidate );
+            if ( metadata == null ) {
+                metadata = candidate;
+            }
+        }
+        return metadata;
+    }
+
+    private final Class<?> type;
+    private final String table;
+    private final Column[] columns;
+    private final Map<String, Column> columnsByName = new HashMap<>();
+    private final Column primaryKey;
+    private final Constructor<?> constructor;
+    private final EntityCache cache;
+
+    private EntityMetadata( Class<?> type )
+    {
+        this.type = type;
+        this.table = type.getSimpleName();
+        List<Column> columns = new ArrayList<>();
+        Column primaryKey = null;
+        for ( Field field : type.getDeclaredFields() ) {
+            int modifiers = field.getModifiers();
+            if ( Modifier.isStatic( modifiers ) || Modifier.isTransient( modifiers ) || field.isSynthetic() ) {
+                continue;
+            }
+            field.setAccessible( true );
+            Column column = new Column( columns.size(), field, field.getAnnotation( PrimaryKey.class ) != null,
+                                        PropertyAccess.configured().newAccessor( field ) );
+            if ( column.isPrimaryKey() ) {
+                primaryKey = column;
+            }
+            columns.add( column );
+            columnsByName.put( column.getName().toLowerCase( Locale.ROOT ), column );
+        }
+        this.columns = columns.toArray( new Column[columns.size()] );
+        this.primaryKey = primaryKey;
+        try {
+            this.constructor = type.getDeclaredConstructor();
+            this.constructor.setAccessible( true );
+        } catch ( NoSuchMethodException cause ) {
+            throw new IllegalArgumentException( type.getName() + " must declare a no-argument constructor", cause );
+        }
+        this.cache = EntityCache.create( this );
+    }
+
+    Class<?> getType()
+    {
+        return type;
+    }
+
+    String getTable()
+    {
+        return table;
+    }
+
+    /**
+     * @return The columns, in declaration order. The returned array is shared: never modify it.
+     */
+    Column[] getColumns()
+    {
+        return columns;
+    }
+
+    /**
+     * @param name The column name, whatever its case.
+     * @return The column, or <code>null</code> if this entity has no such column.
+     */
+    Column getColumn( String name )
+    {
+        return columnsByName.get( name.toLowerCase( Locale.ROOT ) );
+    }
+
+    /**
+     * @return The named columns, in the given order.
+     * @throws IllegalArgumentException When this entity has no column of one of the names.
+     */
+    Column[] getColumns( String... names )
+    {
+        Column[] columns = new Column[names.length];
+        for ( int index = 0; index < names.length; index++ ) {
+            columns[index] = getColumn( names[index] );
+            if ( columns[index] == null ) {
+                throw new IllegalArgumentException( type.getName() + " has no column " + names[index] );
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * @return The primary key column, or <code>null</code> if none is declared.
+     */
+    Column getPrimaryKey()
+    {
+        return primaryKey;
+    }
+
+    /**
+     * @return The cache of the rows of this entity, or <code>null</code> if it is not
+     * {@linkplain activerecord.annotation.Cached cached}.
+     */
+    EntityCache getCache()
+    {
+        return cache;
+    }
+
+    Object newInstance()
+    {
+        try {
+            return constructor.newInstance();
+        } catch ( InstantiationException|IllegalAccessException|InvocationTargetException cause ) {
+            throw new IllegalStateException( "Unable to instantiate " + type.getName(), cause );
+        }
+    }
+
+    /**
+     * A field of an active record class, mapped to the column of the same name.
+     */
+    static final class Column
+    {
+        private final int index;
+        private final String name;
+        private final Class<?> type;
+        private final boolean primaryKey;
+        private final Class<?> referenced;
+        private final PropertyAccess.Accessor accessor;
+        private final ColumnConverter<?> converter;
+
+        private Column( int index, Field field, boolean primaryKey, PropertyAccess.Accessor accessor )
+        {
+            this.index = index;
+            this.name = field.getName();
+            this.type = field.getType();
+            this.primaryKey = primaryKey;
+            References references = field.getAnnotation( References.class );
+            this.referenced = references == null ? null : references.value();
+            this.accessor = accessor;
+            this.converter = Converters.of( type );
+        }
+
+        /**
+         * @return Position of this column among the columns of its entity, starting at 0.
+         */
+        int getIndex()
+        {
+            return index;
+        }
+
+        String getName()
+        {
+            return name;
+        }
+
+        Class<?> getType()
+        {
+            return type;
+        }
+
+        boolean isPrimaryKey()
+        {
+            return primaryKey;
+        }
+
+        /**
+         * @return The class whose primary key this column {@linkplain References references}, or <code>null</code> if
+         * this column is not a declared foreign key.
+         */
+        Class<?> getReferenced()
+        {
+            return referenced;
+        }
+
+        Object get( Object instance )
+        {
+            return accessor.get( instance );
+        }
+
+        void set( Object instance, Object value )
+        {
+            accessor.set( instance, value );
+        }
+
+        /**
+         * @return The value of this column in the current row, read with the converter of its type.
+         */
+        Object read( ResultSet resultSet, int index )
+            throws SQLException
+        {
+            return converter.read( resultSet, index );
+        }
+
+        /**
+         * Set this column of an instance from the current row. SQL null leaves primitive fields to their default value.
+         * @return The value read.
+         */
+        Object read( Object instance, ResultSet resultSet, int index )
+            throws SQLException
+        {
+            Object value = converter.read( resultSet, index );
+            if ( value != null || !type.isPrimitive() ) {
+                accessor.set( instance, value );
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package activerecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latency and count of the statements sent to the database, by entity class and {@link Operation}.
+ *
+ * <p>Every operation is timed, with its own {@link System#nanoTime()} readings, from the statement execution to the
+ * end of the result set reading. Metrics of an operation are read like this:</p>
+ * <pre>
+ * OperationMetrics selections = Metrics.of( Contact.class, Operation.SELECT );
+ * long p99 = selections.getP99Nanos();
+ * </pre>
+ * <p>They can also be published as JMX MXBeans with {@link #enableJmx()}.</p>
+ */
+public final class Metrics
+{
+    private static final Logger logger = LoggerFactory.getLogger( Metrics.class );
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private static final ConcurrentMap<Class<?>, OperationMetrics[]> registry = new ConcurrentHashMap<>();
+
+    private static volatile boolean jmxEnabled;
+
+    private Metrics() {}
+
+    /**
+     * @return The metrics of an operation on an entity class, never <code>null</code>.
+     */
+    public static OperationMetrics of( Class<?> entity, Operation operation )
+    {
+        return metricsOf( entity )[operation.ordinal()];
+    }
+
+    /**
+     * @return The metrics of every operation on every entity class used so far.
+     */
+    public static List<OperationMetrics> all()
+    {
+        List<OperationMetrics> all = new ArrayList<>();
+        for ( OperationMetrics[] metrics : registry.values() ) {
+            for ( OperationMetrics operationMetrics : metrics ) {
+                all.add( operationMetrics );
+            }
+        }
+        return all;
+    }
+
+    /**
+     * @return Number of {@linkplain ActiveRecord#setAsyncExecutor(int, int) asynchronous operations} submitted and not
+     * started yet.
+     */
+    public static int getAsyncQueueDepth()
+    {
+        return AsyncExecutor.queueDepth();
+    }
+
+    /**
+     * @return Number of {@linkplain ActiveRecord#setAsyncExecutor(int, int) asynchronous operations} running.
+     */
+    public static int getAsyncInFlight()
+    {
+        return AsyncExecutor.inFlight();
+    }
+
+    /**
+     * Set every counter and histogram back to zero.
+     */
+    public static void reset()
+    {
+        for ( OperationMetrics metrics : all() ) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Register the metrics of every entity class, present and future, in the platform MBean server.
+     */
+    public static synchronized void enableJmx()
+    {
+        jmxEnabled = true;
+        for ( OperationMetrics metrics : all() ) {
+            register( metrics );
+        }
+    }
+
+    static void record( Class<?> entity, Operation operation, long nanos )
+    {
+        metricsOf( entity )[operation.ordinal()].record( nanos );
+    }
+
+    private static OperationMetrics[] metricsOf( Class<?> entity )
+    {
+        OperationMetrics[] metrics = registry.get( entity );
+        if ( metrics == null ) {
+            OperationMetrics[] candidate = new OperationMetrics[OPERATIONS.length];
+            for ( Operation operation : OPERATIONS ) {
+                candidate[operation.ordinal()] = new OperationMetrics( entity, operation );
+            }
+            metrics = registry.putIfAbsent( entity, candidate );
+            if ( metrics == null ) {
+                metrics = candidate;
+                if ( jmxEnabled ) {
+                    registerAll( metrics );
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static synchronized void registerAll( OperationMetrics[] metrics )
+    {
+        for ( OperationMetrics operationMetrics : metrics ) {
+            register( operationMetrics );
+        }
+    }
+
+    private static void register( OperationMetrics metrics )
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean( metrics, objectName( metrics ) );
+        } catch ( InstanceAlreadyExistsException ignored ) {
+        } catch ( JMException cause ) {
+            logger.warn( "Unable to register metrics of {} in JMX", metrics, cause );
+        }
+    }
+
+    static ObjectName objectName( OperationMetrics metrics )
+        throws JMException
+    {
+        return new ObjectName( "activerecord:type=Metrics,entity=" + metrics.getEntity() + ",operation=" + metrics.getOperation() );
+    }
+}
@@ -0,0 +1,16 @@
+package activerecord;
+
+/**
+ * The kinds of statement active records send to the database.
+ */
+public enum Operation
+{
+    /** Insertion of a new record, by {@link ActiveRecord#save()}. */
+    INSERT,
+    /** Update of an existing record, by {@link ActiveRecord#save()}. */
+    UPDATE,
+    /** Selection of records, by {@link ActiveRecord#find()}. */
+    SELECT,
+    /** Deletion of records, by {@link ActiveRecord#delete()}. */
+    DELETE
+}
@@ -0,0 +1,164 @@
+package activerecord;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and latency histogram of one operation on one entity class.
+ *
+ * <p>
+ *   Recording a latency is lock-free and allocation-free. Latencies are counted in log-linear buckets: each power of
+ *   two is split into {@value #SUB_BUCKETS} buckets, so percentiles are reported with a precision of about 12%.
+ * </p>
+ * @see Metrics#of(Class, Operation)
+ */
+public final class OperationMetrics
+    implements OperationMetricsMXBean
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = ( Long.SIZE - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS;
+
+    private final Class<?> entity;
+    private final Operation operation;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+
+    OperationMetrics( Class<?> entity, Operation operation )
+    {
+        this.entity = entity;
+        this.operation = operation;
+    }
+
+    void record( long nanos )
+    {
+        if ( nanos < 0 ) {
+            nanos = 0;
+        }
+        count.incrementAndGet();
+        totalNanos.addAndGet( nanos );
+        buckets.incrementAndGet( bucketOf( nanos ) );
+        long max;
+        while ( nanos > ( max = maxNanos.get() ) && !maxNanos.compareAndSet( max, nanos ) ) {}
+    }
+
+    @Override
+    public String getEntity()
+    {
+        return entity.getName();
+    }
+
+    @Override
+    public String getOperation()
+    {
+        return operation.name();
+    }
+
+    @Override
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    @Override
+    public long getTotalNanos()
+    {
+        return totalNanos.get();
+    }
+
+    @Override
+    public long getMeanNanos()
+    {
+        long count = this.count.get();
+        return count == 0 ? 0 : totalNanos.get() / count;
+    }
+
+    @Override
+    public long getMaxNanos()
+    {
+        return maxNanos.get();
+    }
+
+    @Override
+    public long getP50Nanos()
+    {
+        return getPercentileNanos( 50 );
+    }
+
+    @Override
+    public long getP90Nanos()
+    {
+        return getPercentileNanos( 90 );
+    }
+
+    @Override
+    public long getP99Nanos()
+    {
+        return getPercentileNanos( 99 );
+    }
+
+    /**
+     * @param percentile Between 0 (excluded) and 100 (included).
+     * @return An upper bound of the latency below which <code>percentile</code> percent of the recorded operations
+     * fall, or 0 if nothing was recorded.
+     */
+    public long getPercentileNanos( double percentile )
+    {
+        if ( percentile <= 0 || percentile > 100 ) {
+            throw new IllegalArgumentException( "Percentile must be in ]0, 100], got " + percentile );
+        }
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for ( int bucket = 0; bucket < BUCKETS; bucket++ ) {
+            counts[bucket] = buckets.get( bucket );
+            total += counts[bucket];
+        }
+        long rank = (long) Math.ceil( total * percentile / 100 );
+        long seen = 0;
+        for ( int bucket = 0; bucket < BUCKETS; bucket++ ) {
+            seen += counts[bucket];
+            if ( seen >= rank && seen > 0 ) {
+                return Math.min( upperBoundOf( bucket ), maxNanos.get() );
+            }
+        }
+        return 0;
+    }
+
+    static int bucketOf( long value )
+    {
+        if ( value < SUB_BUCKETS ) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros( value );
+        int subBucket = (int) ( value >>> ( exponent - SUB_BUCKET_BITS ) ) & ( SUB_BUCKETS - 1 );
+        return ( exponent - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf( int bucket )
+    {
+        if ( bucket < SUB_BUCKETS ) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowerBound = (long) ( SUB_BUCKETS + bucket % SUB_BUCKETS ) << ( exponent - SUB_BUCKET_BITS );
+        return lowerBound + ( 1L << ( exponent - SUB_BUCKET_BITS ) ) - 1;
+    }
+
+    void reset()
+    {
+        count.set( 0 );
+        totalNanos.set( 0 );
+        maxNanos.set( 0 );
+        for ( int bucket = 0; bucket < BUCKETS; bucket++ ) {
+            buckets.set( bucket, 0 );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return entity.getSimpleName() + " " + operation + ": count=" + getCount() + ", p50=" + getP50Nanos() + "ns, p99=" + getP99Nanos() + "ns";
+    }
+}
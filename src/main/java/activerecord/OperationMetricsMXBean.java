@@ -0,0 +1,28 @@
+package activerecord;
+
+/**
+ * JMX view of the {@link OperationMetrics} of one operation on one entity class.
+ *
+ * <p>Registered under the name <code>activerecord:type=Metrics,entity=&lt;class name>,operation=&lt;operation></code>
+ * once {@link Metrics#enableJmx()} is called.</p>
+ */
+public interface OperationMetricsMXBean
+{
+    String getEntity();
+
+    String getOperation();
+
+    long getCount();
+
+    long getTotalNanos();
+
+    long getMeanNanos();
+
+    long getMaxNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+}
@@ -0,0 +1,168 @@
+package activerecord;
+
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Locale;
+
+/**
+ * Strategies to read and write the fields of active records, used to bind arguments and hydrate rows.
+ *
+ * <p>
+ *   The strategy is chosen once, with the <code>{@value #PROPERTY}</code> system property, among
+ *   <code>reflection</code> (the default) and <code>method_handle</code>. A field that method handles cannot access
+ *   falls back to reflection. Measure with {@code HydrationBenchmark} before switching: method handles held in
+ *   instance fields are not constants to the JIT, so they are not faster than reflection.
+ * </p>
+ */
+enum PropertyAccess
+{
+    /**
+     * {@link Field#get(Object)} and {@link Field#set(Object, Object)}, checked on every call.
+     */
+    REFLECTION {
+        @Override
+        Accessor newAccessor( Field field )
+        {
+            return new ReflectionAccessor( field );
+        }
+    },
+    /**
+     * Method handles bound once to the field and adapted to <code>Object</code> signatures, skipping the access checks
+     * of reflection.
+     */
+    METHOD_HANDLE {
+        @Override
+        Accessor newAccessor( Field field )
+        {
+            try {
+                return new MethodHandleAccessor( field );
+            } catch ( IllegalAccessException cause ) {
+                LoggerFactory.getLogger( PropertyAccess.class ).debug( "Using reflection to access " + field, cause );
+                return REFLECTION.newAccessor( field );
+            }
+        }
+    };
+
+    static final String PROPERTY = "activerecord.propertyAccess";
+
+    private static final PropertyAccess configured = fromSystemProperty();
+
+    /**
+     * @return The strategy used by {@link EntityMetadata}.
+     */
+    static PropertyAccess configured()
+    {
+        return configured;
+    }
+
+    /**
+     * @param field An accessible field.
+     */
+    abstract Accessor newAccessor( Field field );
+
+    private static PropertyAccess fromSystemProperty()
+    {
+        String value = System.getProperty( PROPERTY, REFLECTION.name() );
+        try {
+            return valueOf( value.trim().toUpperCase( Locale.ROOT ) );
+        } catch ( IllegalArgumentException unknown ) {
+            LoggerFactory.getLogger( PropertyAccess.class ).warn( "Unknown {} '{}', using reflection", PROPERTY, value );
+            return REFLECTION;
+        }
+    }
+
+    /**
+     * Read and write one field of any instance of its class.
+     */
+    abstract static class Accessor
+    {
+        final Field field;
+
+        Accessor( Field field )
+        {
+            this.field = field;
+        }
+
+        abstract Object get( Object instance );
+
+        abstract void set( Object instance, Object value );
+    }
+
+    private static final class ReflectionAccessor
+        extends Accessor
+    {
+        private ReflectionAccessor( Field field )
+        {
+            super( field );
+        }
+
+        @Override
+        Object get( Object instance )
+        {
+            try {
+                return field.get( instance );
+            } catch ( IllegalAccessException cause ) {
+                throw new IllegalStateException( "Unable to read " + field, cause );
+            }
+        }
+
+        @Override
+        void set( Object instance, Object value )
+        {
+            try {
+                field.set( instance, value );
+            } catch ( IllegalAccessException cause ) {
+                throw new IllegalStateException( "Unable to write " + field, cause );
+            }
+        }
+    }
+
+    private static final class MethodHandleAccessor
+        extends Accessor
+    {
+        private static final MethodType GETTER = MethodType.methodType( Object.class, Object.class );
+        private static final MethodType SETTER = MethodType.methodType( void.class, Object.class, Object.class );
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private MethodHandleAccessor( Field field )
+            throws IllegalAccessException
+        {
+            super( field );
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            this.getter = lookup.unreflectGetter( field ).asType( GETTER );
+            this.setter = lookup.unreflectSetter( field ).asType( SETTER );
+        }
+
+        @Override
+        Object get( Object instance )
+        {
+            try {
+                return (Object) getter.invokeExact( instance );
+            } catch ( RuntimeException|Error cause ) {
+                throw cause;
+            } catch ( Throwable cause ) {
+                throw new IllegalStateException( "Unable to read " + field, cause );
+            }
+        }
+
+        @Override
+        void set( Object instance, Object value )
+        {
+            try {
+                setter.invokeExact( instance, value );
+            } catch ( ClassCastException|NullPointerException cause ) {
+                throw new IllegalArgumentException( "Unable to write " + value + " into " + field, cause );
+            } catch ( RuntimeException|Error cause ) {
+                throw cause;
+            } catch ( Throwable cause ) {
+                throw new IllegalStateException( "Unable to write " + field, cause );
+            }
+        }
+    }
+}
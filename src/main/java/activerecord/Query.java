@@ -74,6 +74,10 @@ class Query
         WhereQuery where(String firstName) {
             return new WhereQuery(this.toString(), firstName);
         }
+
+        OrderByQuery orderBy(String column) {
+            return new OrderByQuery(this.toString(), column);
+        }
     }
 
     static class WhereQuery
@@ -94,11 +98,65 @@ class Query
             return this;
         }
 
+        public WhereQuery isIn( List<String> operands )
+        {
+            builder.append(" IN (").append( Joiner.on(", ").join( operands ) ).append(")");
+            return this;
+        }
+
+        public WhereQuery isGreaterThan( String operand )
+        {
+            builder.append(" > ").append( operand );
+            return this;
+        }
+
+        public WhereQuery isBetween( String low, String high )
+        {
+            builder.append(" BETWEEN ").append( low ).append(" AND ").append( high );
+            return this;
+        }
+
         public WhereQuery and( String name )
         {
             builder.append(" AND ").append( name );
             return this;
         }
+
+        OrderByQuery orderBy( String column )
+        {
+            return new OrderByQuery( toString(), column );
+        }
+    }
+
+    static class OrderByQuery
+    {
+        private StringBuilder builder = new StringBuilder();
+
+        OrderByQuery( String startStatement, String firstColumn ) {
+            this.builder.append(startStatement).append(" ORDER BY ").append(firstColumn);
+        }
+
+        public String toString() {
+            return builder.toString();
+        }
+
+        OrderByQuery and( String column )
+        {
+            builder.append(", ").append(column);
+            return this;
+        }
+
+        OrderByQuery limit( String count )
+        {
+            builder.append(" LIMIT ").append(count);
+            return this;
+        }
+
+        OrderByQuery offset( String count )
+        {
+            builder.append(" OFFSET ").append(count);
+            return this;
+        }
     }
 
     static class DeletionQuery
@@ -117,10 +175,11 @@ class Query
     {
         private String table;
         private List<String> columns = new ArrayList<>();
-        private List<String> values = new ArrayList<>();
+        private List<List<String>> rows = new ArrayList<>();
 
         InsertionQuery(String table) {
             this.table = table;
+            rows.add(new ArrayList<String>());
         }
 
         public String toString() {
@@ -129,9 +188,15 @@ class Query
                     .append( " (" );
             Joiner joiner = Joiner.on(", ");
             buffer.append(joiner.join(columns));
-            buffer.append(") VALUES (");
-            buffer.append(joiner.join(values));
-            buffer.append(")");
+            buffer.append(") VALUES ");
+            for (int row = 0; row < rows.size(); row++) {
+                if (row > 0) {
+                    buffer.append(", ");
+                }
+                buffer.append("(");
+                buffer.append(joiner.join(rows.get(row)));
+                buffer.append(")");
+            }
             return buffer.toString();
         }
 
@@ -141,9 +206,21 @@ class Query
             return this;
         }
 
+        /**
+         * Add a value to the current row.
+         */
         InsertionQuery value( String value )
         {
-            values.add(value);
+            rows.get(rows.size() - 1).add(value);
+            return this;
+        }
+
+        /**
+         * Start another row of values, to insert several rows with a single statement.
+         */
+        InsertionQuery row()
+        {
+            rows.add(new ArrayList<String>());
             return this;
         }
     }
@@ -0,0 +1,214 @@
+package activerecord;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the results of selection queries, keyed by SQL text and argument values.
+ *
+ * <p>
+ *   Caching is opt-in: as long as {@link #configure(long, long, TimeUnit)} has not been given a positive size, nothing
+ *   is cached. Each table has a generation, part of the keys, which is incremented by every write to the table: the
+ *   results read before a write are then never returned again, and are left to eviction. Results are cached as arrays
+ *   of column values, so every hit returns new instances, and the cache is bounded by the number of rows it holds
+ *   rather than by the number of results. Mutable values, byte arrays and dates, are copied in and out of the cache.
+ *   Results read in a transaction are only cached once it is {@linkplain Transactions#afterCommit(Runnable)
+ *   committed}, and never served to a transaction which wrote their table.
+ * </p>
+ */
+final class QueryCache
+{
+    private static final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private static volatile Cache<Key, List<Object[]>> cache = null;
+
+    /**
+     * Weight of a result: its number of rows, at least one so that empty results are bounded too.
+     */
+    private static final Weigher<Key, List<Object[]>> ROWS = new Weigher<Key, List<Object[]>>()
+    {
+        @Override
+        public int weigh( Key key, List<Object[]> rows )
+        {
+            return Math.max( 1, rows.size() );
+        }
+    };
+
+    private QueryCache() {}
+
+    /**
+     * @param maximumRows Maximum number of cached rows, all results together, or <code>0</code> to disable the cache.
+     * @param expireAfterWrite Time after which a result is evicted once cached, or <code>0</code> to keep it as long as
+     * possible.
+     */
+    static void configure( long maximumRows, long expireAfterWrite, TimeUnit unit )
+    {
+        if ( maximumRows < 0 || expireAfterWrite < 0 ) {
+            throw new IllegalArgumentException( "Query cache size and time to live must be positive or zero, got "
+                                                + maximumRows + " and " + expireAfterWrite );
+        }
+        if ( maximumRows == 0 ) {
+            cache = null;
+            return;
+        }
+        CacheBuilder<Key, List<Object[]>> builder = CacheBuilder.newBuilder()
+                                                                .maximumWeight( maximumRows )
+                                                                .weigher( ROWS )
+                                                                .recordStats();
+        if ( expireAfterWrite > 0 ) {
+            builder.expireAfterWrite( expireAfterWrite, unit );
+        }
+        cache = builder.build();
+    }
+
+    static boolean isEnabled()
+    {
+        return cache != null;
+    }
+
+    /**
+     * @return The key of the results of the given query, at the current generation of the table of the entity: to take
+     * before executing the query.
+     */
+    static Key key( EntityMetadata metadata, String query, List<Object> args )
+    {
+        return new Key( metadata, generationOf( metadata.getTable() ).get(), query, args );
+    }
+
+    /**
+     * @return New instances of the cached results, or <code>null</code> if not cached.
+     */
+    static <T> List<T> get( Key key )
+    {
+        Cache<Key, List<Object[]>> cache = QueryCache.cache;
+        EntityMetadata metadata = key.metadata;
+        if ( cache == null || Transactions.isWritten( metadata.getType() ) ) {
+            return null;
+        }
+        List<Object[]> rows = cache.getIfPresent( key );
+        if ( rows == null ) {
+            return null;
+        }
+        Session session = Session.current();
+        List<T> results = new ArrayList<>( rows.size() );
+        for ( Object[] values : rows ) {
+            Object instance = metadata.newInstance();
+            for ( EntityMetadata.Column column : metadata.getColumns() ) {
+                column.set( instance, Converters.copy( values[column.getIndex()] ) );
+            }
+            if ( instance instanceof ActiveRecord ) {
+                ( (ActiveRecord<?>) instance ).snapshot( values );
+            }
+            if ( session != null && metadata.getPrimaryKey() != null ) {
+                instance = session.attach( metadata, instance );
+            }
+            @SuppressWarnings( "unchecked" )
+            T result = (T) instance;
+            results.add( result );
+        }
+        return results;
+    }
+
+    /**
+     * Cache the values of the given fully populated instances, as results of the query of the key.
+     */
+    static void put( final Key key, List<?> results )
+    {
+        final Cache<Key, List<Object[]>> cache = QueryCache.cache;
+        if ( cache == null ) {
+            return;
+        }
+        EntityMetadata.Column[] columns = key.metadata.getColumns();
+        List<Object[]> rows = new ArrayList<>( results.size() );
+        for ( Object result : results ) {
+            Object[] values = new Object[columns.length];
+            for ( EntityMetadata.Column column : columns ) {
+                values[column.getIndex()] = Converters.copy( column.get( result ) );
+            }
+            rows.add( values );
+        }
+        final List<Object[]> cached = Collections.unmodifiableList( rows );
+        Transactions.afterCommit( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                cache.put( key, cached );
+            }
+        } );
+    }
+
+    /**
+     * Make every cached result of queries on the given table obsolete.
+     */
+    static void invalidate( String table )
+    {
+        generationOf( table ).incrementAndGet();
+    }
+
+    /**
+     * @return Hit, miss and eviction counts, or <code>null</code> if the cache is disabled.
+     */
+    static CacheStats stats()
+    {
+        Cache<Key, List<Object[]>> cache = QueryCache.cache;
+        return cache == null ? null : cache.stats();
+    }
+
+    private static AtomicLong generationOf( String table )
+    {
+        AtomicLong generation = generations.get( table );
+        if ( generation == null ) {
+            AtomicLong candidate = new AtomicLong();
+            generation = generations.putIfAbsent( table, candidate );
+            if ( generation == null ) {
+                generation = candidate;
+            }
+        }
+        return generation;
+    }
+
+    static final class Key
+    {
+        private final EntityMetadata metadata;
+        private final long generation;
+        private final String query;
+        private final List<Object> args;
+
+        private Key( EntityMetadata metadata, long generation, String query, List<Object> args )
+        {
+            this.metadata = metadata;
+            this.generation = generation;
+            this.query = query;
+            this.args = new ArrayList<>( args );
+        }
+
+        @Override
+        public boolean equals( Object other )
+        {
+            if ( !( other instanceof Key ) ) {
+                return false;
+            }
+            Key key = (Key) other;
+            return metadata == key.metadata && generation == key.generation && query.equals( key.query )
+                   && args.equals( key.args );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = 31 * ( 31 * metadata.hashCode() + (int) ( generation ^ ( generation >>> 32 ) ) ) + query.hashCode();
+            return 31 * hash + args.hashCode();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package activerecord;
+
+import java.sql.SQLException;
+
+/**
+ * Receive active records one at a time.
+ *
+ * @param <T> Type of the handled active records.
+ * @see ActiveRecord#forEach(RecordHandler)
+ */
+public interface RecordHandler<T>
+{
+    /**
+     * @param record A record read from the database.
+     * @throws SQLException To stop the iteration, if handling the record implies database access that failed.
+     */
+    void handle( T record )
+        throws SQLException;
+}
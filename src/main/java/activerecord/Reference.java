@@ -0,0 +1,168 @@
+package activerecord;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Lazy navigation of a many-to-one relationship, through a foreign key column of an active record.
+ *
+ * <pre>
+ * public class Contact
+ *     extends ActiveRecord&lt;Contact>
+ * {
+ *     {@literal @}PrimaryKey
+ *     private Integer id;
+ *     {@literal @}References( ContactGroup.class )
+ *     private Integer groupId;
+ *     private final transient Reference&lt;ContactGroup> group = Reference.to( ContactGroup.class, this, "groupId" );
+ *
+ *     public ContactGroup getGroup() throws SQLException {
+ *         return group.get();
+ *     }
+ * }
+ * </pre>
+ * <p>
+ *   A reference only holds the foreign key, in the column of its owner, until {@link #get()} is first called. The
+ *   referenced instance is then found by primary key, in the {@linkplain Session#current() current session} and in the
+ *   {@linkplain activerecord.annotation.Cached caches} first, and kept as long as the foreign key does not change.
+ *   Concurrent first calls find it once. Declare references as <code>transient</code> fields, so that they are not
+ *   mapped to columns, and leave them out of generated <code>toString()</code> methods, which would load them.
+ * </p>
+ *
+ * @param <R> Type of the referenced active records.
+ */
+public final class Reference<R extends ActiveRecord<R>>
+{
+    private final Class<R> type;
+    private final Object owner;
+    private final String foreignKey;
+
+    private volatile EntityMetadata.Column column;
+
+    private volatile Loaded<R> loaded;
+
+    private Reference( Class<R> type, Object owner, String foreignKey )
+    {
+        this.type = type;
+        this.owner = owner;
+        this.foreignKey = foreignKey;
+    }
+
+    /**
+     * @param type The referenced class.
+     * @param owner The active record holding the foreign key.
+     * @param foreignKey Name of the column of the owner, {@linkplain activerecord.annotation.References referencing} the
+     * given class. It is checked on first use.
+     * @return A reference to the instance of the given class whose primary key is the foreign key of the owner.
+     */
+    public static <R extends ActiveRecord<R>> Reference<R> to( Class<R> type, ActiveRecord<?> owner,
+                                                               String foreignKey )
+    {
+        return new Reference<>( type, owner, foreignKey );
+    }
+
+    /**
+     * @return The current value of the foreign key, possibly <code>null</code>.
+     */
+    public Object getKey()
+    {
+        return column().get( owner );
+    }
+
+    /**
+     * @return Whether the instance of the current foreign key is already loaded, so that {@link #get()} does not
+     * query.
+     */
+    public boolean isLoaded()
+    {
+        Object key = getKey();
+        Loaded<R> loaded = this.loaded;
+        return key == null || loaded != null && key.equals( loaded.key );
+    }
+
+    /**
+     * @return The referenced instance, or <code>null</code> if the foreign key is <code>null</code> or references no
+     * row.
+     * @throws SQLException This may failed, sorry.
+     * @throws IllegalArgumentException When the column is not declared as referencing the class of this reference.
+     */
+    public R get()
+        throws SQLException
+    {
+        Object key = getKey();
+        if ( key == null ) {
+            return null;
+        }
+        Loaded<R> loaded = this.loaded;
+        if ( loaded != null && key.equals( loaded.key ) ) {
+            return loaded.target;
+        }
+        synchronized ( this ) {
+            loaded = this.loaded;
+            if ( loaded == null || !key.equals( loaded.key ) ) {
+                loaded = new Loaded<>( key, find( key ) );
+                this.loaded = loaded;
+            }
+            return loaded.target;
+        }
+    }
+
+    /**
+     * Reference the given instance: the foreign key of the owner is set to its primary key.
+     * @param target The instance to reference, already saved, or <code>null</code> to reference none.
+     */
+    public synchronized void set( R target )
+    {
+        Object key = target == null ? null : EntityMetadata.of( type ).getPrimaryKey().get( target );
+        if ( target != null && key == null ) {
+            throw new IllegalArgumentException( "Unable to reference " + target + ": it has no primary key yet" );
+        }
+        column().set( owner, key );
+        loaded = key == null ? null : new Loaded<>( key, target );
+    }
+
+    @Override
+    public String toString()
+    {
+        return type.getSimpleName() + "#" + getKey();
+    }
+
+    private R find( Object key )
+        throws SQLException
+    {
+        EntityMetadata metadata = EntityMetadata.of( type );
+        R sample = type.cast( metadata.newInstance() );
+        metadata.getPrimaryKey().set( sample, key );
+        List<R> found = sample.find();
+        return found.isEmpty() ? null : found.get( 0 );
+    }
+
+    private EntityMetadata.Column column()
+    {
+        EntityMetadata.Column column = this.column;
+        if ( column == null ) {
+            column = EntityMetadata.of( owner.getClass() ).getColumns( foreignKey )[0];
+            if ( column.getReferenced() != type ) {
+                throw new IllegalArgumentException( owner.getClass().getName() + "." + column.getName()
+                                                    + " is not declared as referencing " + type.getName() );
+            }
+            this.column = column;
+        }
+        return column;
+    }
+
+    /**
+     * A referenced instance, with the foreign key it was found by.
+     */
+    private static final class Loaded<R>
+    {
+        private final Object key;
+        private final R target;
+
+        private Loaded( Object key, R target )
+        {
+            this.key = key;
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package activerecord;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Turn the current row of a result set into an object.
+ *
+ * <p>
+ *   A mapper is {@linkplain #resolve(String, ResultSet) resolved} against the result set of each query before reading
+ *   its rows, so that the per-row work is a plain indexed loop.
+ * </p>
+ *
+ * @param <T> Type of the objects created from rows.
+ */
+abstract class RowMapper<T>
+{
+    /**
+     * @return A mapper creating an instance of the entity class, populated from the result set columns whose label is
+     * the name of one of its columns, whatever their order. Other result set columns are ignored. To create right
+     * before executing the query: fully populated instances are only cached if the cache was not written since.
+     */
+    static <T> RowMapper<T> entity( EntityMetadata metadata )
+    {
+        return new EntityRowMapper<>( metadata );
+    }
+
+    /**
+     * @return A mapper creating an array of the values of the given columns, selected in this order.
+     */
+    static RowMapper<Object[]> tuple( EntityMetadata.Column[] columns )
+    {
+        return new TupleRowMapper( columns );
+    }
+
+    /**
+     * @param query The executed query, identifying the shape of its result set.
+     * @return A mapper for the rows of the given result set: this one by default.
+     */
+    RowMapper<T> resolve( String query, ResultSet resultSet )
+        throws SQLException
+    {
+        return this;
+    }
+
+    abstract T map( ResultSet resultSet )
+        throws SQLException;
+
+    /**
+     * Resolve result set columns to entity columns, by label, once per query.
+     */
+    private static final class EntityRowMapper<T>
+        extends RowMapper<T>
+    {
+        private static final long MAXIMUM_SIZE = 1024;
+
+        private static final Cache<Shape, EntityMetadata.Column[]> mappings = CacheBuilder.newBuilder()
+                                                                                          .maximumSize( MAXIMUM_SIZE )
+                                                                                          .build();
+
+        private final EntityMetadata metadata;
+
+        /**
+         * Generation of the cache of the entity when this mapper was created, before its query.
+         */
+        private final long generation;
+
+        private EntityRowMapper( EntityMetadata metadata )
+        {
+            this.metadata = metadata;
+            this.generation = metadata.getCache() == null ? 0 : metadata.getCache().generation();
+        }
+
+        @Override
+        RowMapper<T> resolve( String query, final ResultSet resultSet )
+            throws SQLException
+        {
+            try {
+                return new ResolvedRowMapper<>( metadata, generation, mappings.get( new Shape( metadata.getType(), query ), new Callable<EntityMetadata.Column[]>()
+                {
+                    @Override
+                    public EntityMetadata.Column[] call()
+                        throws SQLException
+                    {
+                        return mapping( resultSet.getMetaData() );
+                    }
+                } ) );
+            } catch ( ExecutionException cause ) {
+                Throwables.propagateIfInstanceOf( cause.getCause(), SQLException.class );
+                throw Throwables.propagate( cause.getCause() );
+            }
+        }
+
+        /**
+         * @return For each result set column, the entity column of the same name, or <code>null</code> if none.
+         */
+        private EntityMetadata.Column[] mapping( ResultSetMetaData resultSetMetaData )
+            throws SQLException
+        {
+            EntityMetadata.Column[] mapping = new EntityMetadata.Column[resultSetMetaData.getColumnCount()];
+            for ( int index = 0; index < mapping.length; index++ ) {
+                mapping[index] = metadata.getColumn( resultSetMetaData.getColumnLabel( index + 1 ) );
+            }
+            return mapping;
+        }
+
+        @Override
+        T map( ResultSet resultSet )
+            throws SQLException
+        {
+            EntityMetadata.Column[] mapping = mapping( resultSet.getMetaData() );
+            return new ResolvedRowMapper<T>( metadata, generation, mapping ).map( resultSet );
+        }
+    }
+
+    private static final class ResolvedRowMapper<T>
+        extends RowMapper<T>
+    {
+        private final EntityMetadata metadata;
+        private final long generation;
+        private final EntityMetadata.Column[] mapping;
+        private final boolean complete;
+        /**
+         * Whether the primary key is mapped, so that instances can be saved back.
+         */
+        private final boolean keyed;
+
+        private ResolvedRowMapper( EntityMetadata metadata, long generation, EntityMetadata.Column[] mapping )
+        {
+            this.metadata = metadata;
+            this.generation = generation;
+            this.mapping = mapping;
+            this.complete = metadata.getPrimaryKey() != null && mapsEveryColumn( metadata, mapping );
+            this.keyed = complete || metadata.getPrimaryKey() != null
+                                    && Arrays.asList( mapping ).contains( metadata.getPrimaryKey() );
+        }
+
+        private static boolean mapsEveryColumn( EntityMetadata metadata, EntityMetadata.Column[] mapping )
+        {
+            long[] mapped = SqlTemplates.newMask( metadata );
+            for ( EntityMetadata.Column column : mapping ) {
+                if ( column != null ) {
+                    SqlTemplates.set( mapped, column );
+                }
+            }
+            for ( EntityMetadata.Column column : metadata.getColumns() ) {
+                if ( !SqlTemplates.isSet( mapped, column ) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        T map( ResultSet resultSet )
+            throws SQLException
+        {
+            Object instance = metadata.newInstance();
+            Object[] values = keyed ? new Object[metadata.getColumns().length] : null;
+            if ( keyed && !complete ) {
+                Arrays.fill( values, ActiveRecord.NOT_LOADED );
+            }
+            for ( int index = 0; index < mapping.length; index++ ) {
+                if ( mapping[index] != null ) {
+                    Object value = mapping[index].read( instance, resultSet, index + 1 );
+                    if ( values != null ) {
+                        values[mapping[index].getIndex()] = Converters.copy( value );
+                    }
+                }
+            }
+            if ( keyed && instance instanceof ActiveRecord ) {
+                ( (ActiveRecord<?>) instance ).snapshot( values );
+            }
+            if ( complete ) {
+                if ( metadata.getCache() != null ) {
+                    metadata.getCache().putLoaded( instance, generation );
+                }
+                Session session = Session.current();
+                if ( session != null ) {
+                    instance = session.attach( metadata, instance );
+                }
+            }
+            return (T) instance;
+        }
+    }
+
+    private static final class TupleRowMapper
+        extends RowMapper<Object[]>
+    {
+        private final EntityMetadata.Column[] columns;
+
+        private TupleRowMapper( EntityMetadata.Column[] columns )
+        {
+            this.columns = columns;
+        }
+
+        @Override
+        Object[] map( ResultSet resultSet )
+            throws SQLException
+        {
+            Object[] values = new Object[columns.length];
+            for ( int index = 0; index < columns.length; index++ ) {
+                values[index] = columns[index].read( resultSet, index + 1 );
+            }
+            return values;
+        }
+    }
+
+    private static final class Shape
+    {
+        private final Class<?> type;
+        private final String query;
+
+        private Shape( Class<?> type, String query )
+        {
+            this.type = type;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals( Object other )
+        {
+            if ( !( other instanceof Shape ) ) {
+                return false;
+            }
+            Shape shape = (Shape) other;
+            return type == shape.type && query.equals( shape.query );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * type.hashCode() + query.hashCode();
+        }
+    }
+}
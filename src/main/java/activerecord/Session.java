@@ -0,0 +1,153 @@
+package activerecord;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A scope in which each row is loaded at most once, as a single instance.
+ *
+ * <p>
+ *   While a session is open on a thread, the active records read by this thread are kept in an identity map, keyed by
+ *   class and primary key. A row read again is returned as the instance already loaded, and finding an instance by
+ *   its primary key alone does not query the database when it is in the map:
+ * </p>
+ * <pre>
+ * try ( Session session = Session.open() ) {
+ *   for ( Contact contact : contacts ) {
+ *     ContactGroup group = contact.getGroup(); // Queried once per group
+ *     // ...
+ *   }
+ * }
+ * </pre>
+ * <p>
+ *   Instances are never refreshed from the database while in the map: keep sessions short. Only fully populated
+ *   instances are put in the map, so {@linkplain ActiveRecord#select(String...) projections} are not. A session is
+ *   not thread-safe, and must be closed by the thread which opened it.
+ * </p>
+ */
+public final class Session
+    implements AutoCloseable
+{
+    private static final ThreadLocal<Session> current = new ThreadLocal<>();
+
+    private final Map<Class<?>, Map<Object, Object>> instances = new HashMap<>();
+
+    private boolean closed;
+
+    private Session() {}
+
+    /**
+     * Open a session on the current thread.
+     * @return The new session, to close when done.
+     * @throws IllegalStateException When a session is already open on the current thread.
+     */
+    public static Session open()
+    {
+        if ( current.get() != null ) {
+            throw new IllegalStateException( "A session is already open on thread " + Thread.currentThread().getName() );
+        }
+        Session session = new Session();
+        current.set( session );
+        return session;
+    }
+
+    /**
+     * @return The session open on the current thread, or <code>null</code> if none.
+     */
+    public static Session current()
+    {
+        return current.get();
+    }
+
+    /**
+     * @return The loaded instance of the given class with the given primary key, or <code>null</code> if none.
+     */
+    public <T> T get( Class<T> type, Object primaryKey )
+    {
+        Map<Object, Object> instancesOfType = instances.get( type );
+        return instancesOfType == null ? null : type.cast( instancesOfType.get( primaryKey ) );
+    }
+
+    /**
+     * @return The number of loaded instances.
+     */
+    public int size()
+    {
+        int size = 0;
+        for ( Map<Object, Object> instancesOfType : instances.values() ) {
+            size += instancesOfType.size();
+        }
+        return size;
+    }
+
+    /**
+     * Forget every loaded instance, so that the next reads query the database again.
+     */
+    public void clear()
+    {
+        instances.clear();
+    }
+
+    /**
+     * Forget every loaded instance and unbind this session from the current thread. Closing twice has no effect.
+     */
+    @Override
+    public void close()
+    {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        instances.clear();
+        if ( current.get() == this ) {
+            current.remove();
+        }
+    }
+
+    /**
+     * @return The instance already loaded for the same row, or the given instance, from now on loaded.
+     */
+    Object attach( EntityMetadata metadata, Object instance )
+    {
+        Object primaryKey = metadata.getPrimaryKey().get( instance );
+        if ( primaryKey == null ) {
+            return instance;
+        }
+        Map<Object, Object> instancesOfType = instancesOf( metadata.getType() );
+        Object loaded = instancesOfType.get( primaryKey );
+        if ( loaded != null ) {
+            return loaded;
+        }
+        instancesOfType.put( primaryKey, instance );
+        return instance;
+    }
+
+    /**
+     * Forget the loaded instance of the given class with the given primary key.
+     */
+    void detach( Class<?> type, Object primaryKey )
+    {
+        Map<Object, Object> instancesOfType = instances.get( type );
+        if ( instancesOfType != null ) {
+            instancesOfType.remove( primaryKey );
+        }
+    }
+
+    /**
+     * Forget all loaded instances of the given class.
+     */
+    void detachAll( Class<?> type )
+    {
+        instances.remove( type );
+    }
+
+    private Map<Object, Object> instancesOf( Class<?> type )
+    {
+        Map<Object, Object> instancesOfType = instances.get( type );
+        if ( instancesOfType == null ) {
+            instancesOfType = new HashMap<>();
+            instances.put( type, instancesOfType );
+        }
+        return instancesOfType;
+    }
+}
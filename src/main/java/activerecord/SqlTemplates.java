@@ -0,0 +1,369 @@
+package activerecord;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache of the SQL generated for each entity class.
+ *
+ * <p>
+ *   A query by example only depends on the class and on which fields of the example are populated, so the text is
+ *   generated once with {@link Query} for each (class, kind, mask) triple and then reused. The mask has one bit per
+ *   {@linkplain EntityMetadata.Column#getIndex() column index}, set when the column takes part in the
+ *   <code>WHERE</code> clause. Some kinds of query also depend on a count, like the number of rows of a multi-row
+ *   insertion, or on a projection: the indexes of the selected columns, in selection order.
+ * </p>
+ */
+final class SqlTemplates
+{
+    private static final long MAXIMUM_SIZE = 1024;
+
+    private static final long[] NO_MASK = new long[0];
+
+    private static final int[] NO_PROJECTION = new int[0];
+
+    private static final Cache<Key, String> cache = CacheBuilder.newBuilder()
+                                                                .maximumSize( MAXIMUM_SIZE )
+                                                                .recordStats()
+                                                                .build();
+
+    private SqlTemplates() {}
+
+    static long[] newMask( EntityMetadata metadata )
+    {
+        return new long[( metadata.getColumns().length + Long.SIZE - 1 ) / Long.SIZE];
+    }
+
+    static void set( long[] mask, EntityMetadata.Column column )
+    {
+        mask[column.getIndex() / Long.SIZE] |= 1L << column.getIndex();
+    }
+
+    static boolean isSet( long[] mask, EntityMetadata.Column column )
+    {
+        return ( mask[column.getIndex() / Long.SIZE] & ( 1L << column.getIndex() ) ) != 0;
+    }
+
+    static boolean isEmpty( long[] mask )
+    {
+        for ( long word : mask ) {
+            if ( word != 0 ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String insert( EntityMetadata metadata )
+    {
+        return insert( metadata, 1 );
+    }
+
+    /**
+     * @param rows Number of rows inserted by the statement.
+     */
+    static String insert( EntityMetadata metadata, int rows )
+    {
+        return lookup( metadata, Kind.INSERT, NO_MASK, rows );
+    }
+
+    /**
+     * @return An update of the columns of the mask, except the primary key, of the row of a primary key.
+     */
+    static String update( EntityMetadata metadata, long[] mask )
+    {
+        return lookup( metadata, Kind.UPDATE, mask, 0 );
+    }
+
+    static String select( EntityMetadata metadata, long[] mask )
+    {
+        return lookup( metadata, Kind.SELECT, mask, 0 );
+    }
+
+    /**
+     * @return A selection of the rows matching the mask, ordered by primary key, with <code>LIMIT ? OFFSET ?</code>.
+     */
+    static String selectPage( EntityMetadata metadata, long[] mask )
+    {
+        return lookup( metadata, Kind.SELECT_PAGE, mask, 0 );
+    }
+
+    /**
+     * @return A selection of the rows matching the mask whose primary key is greater than a parameter, ordered by
+     * primary key, with <code>LIMIT ?</code>.
+     */
+    static String selectAfter( EntityMetadata metadata, long[] mask )
+    {
+        return lookup( metadata, Kind.SELECT_AFTER, mask, 0 );
+    }
+
+    /**
+     * @return A selection of the minimum and maximum primary keys of the rows matching the mask.
+     */
+    static String selectBounds( EntityMetadata metadata, long[] mask )
+    {
+        return lookup( metadata, Kind.SELECT_BOUNDS, mask, 0 );
+    }
+
+    /**
+     * @return A selection of the rows matching the mask whose primary key is between two parameters, inclusive.
+     */
+    static String selectRange( EntityMetadata metadata, long[] mask )
+    {
+        return lookup( metadata, Kind.SELECT_RANGE, mask, 0 );
+    }
+
+    /**
+     * @return A selection of the rows whose given column is in a list of <code>count</code> parameters.
+     */
+    static String selectIn( EntityMetadata metadata, EntityMetadata.Column column, int count )
+    {
+        return lookup( metadata, Kind.SELECT_IN, NO_MASK, count, new int[] { column.getIndex() } );
+    }
+
+    /**
+     * @return A selection of the given columns only, of the rows matching the mask.
+     */
+    static String project( EntityMetadata metadata, EntityMetadata.Column[] columns, long[] mask )
+    {
+        int[] projection = new int[columns.length];
+        for ( int index = 0; index < columns.length; index++ ) {
+            projection[index] = columns[index].getIndex();
+        }
+        return lookup( metadata, Kind.PROJECT, mask, 0, projection );
+    }
+
+    static String delete( EntityMetadata metadata, long[] mask )
+    {
+        return lookup( metadata, Kind.DELETE, mask, 0 );
+    }
+
+    static long hitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    static long missCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    private static String lookup( EntityMetadata metadata, Kind kind, long[] mask, int count )
+    {
+        return lookup( metadata, kind, mask, count, NO_PROJECTION );
+    }
+
+    private static String lookup( final EntityMetadata metadata, final Kind kind, final long[] mask, final int count,
+                                  final int[] projection )
+    {
+        try {
+            return cache.get( new Key( metadata.getType(), kind, mask, count, projection ), new Callable<String>()
+            {
+                @Override
+                public String call()
+                {
+                    return kind.generate( metadata, mask, count, projection ).intern();
+                }
+            } );
+        } catch ( ExecutionException cause ) {
+            throw Throwables.propagate( cause.getCause() );
+        }
+    }
+
+    private enum Kind
+    {
+        INSERT {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                Query.InsertionQuery insert = Query.insertInto( metadata.getTable() );
+                for ( EntityMetadata.Column column : metadata.getColumns() ) {
+                    insert.column( column.getName() ).value( "?" );
+                }
+                for ( int row = 1; row < count; row++ ) {
+                    insert.row();
+                    for ( int column = 0; column < metadata.getColumns().length; column++ ) {
+                        insert.value( "?" );
+                    }
+                }
+                return insert.toString();
+            }
+        },
+        UPDATE {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                Query.UpdateQuery update = Query.update( metadata.getTable() );
+                EntityMetadata.Column primaryKey = metadata.getPrimaryKey();
+                for ( EntityMetadata.Column column : metadata.getColumns() ) {
+                    if ( column != primaryKey && isSet( mask, column ) ) {
+                        update.set( column.getName(), "?" );
+                    }
+                }
+                return update.where( primaryKey.getName() ).isEqualTo( "?" ).toString();
+            }
+        },
+        SELECT {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                return where( metadata, selectFrom( metadata ), mask );
+            }
+        },
+        SELECT_PAGE {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                Query.FromQuery from = selectFrom( metadata );
+                Query.WhereQuery where = whereClause( metadata, from, mask );
+                String orderColumn = orderColumn( metadata ).getName();
+                Query.OrderByQuery orderBy = where == null ? from.orderBy( orderColumn ) : where.orderBy( orderColumn );
+                return orderBy.limit( "?" ).offset( "?" ).toString();
+            }
+        },
+        SELECT_AFTER {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                Query.FromQuery from = selectFrom( metadata );
+                Query.WhereQuery where = whereClause( metadata, from, mask );
+                String primaryKey = metadata.getPrimaryKey().getName();
+                where = where == null ? from.where( primaryKey ) : where.and( primaryKey );
+                return where.isGreaterThan( "?" ).orderBy( primaryKey ).limit( "?" ).toString();
+            }
+        },
+        SELECT_BOUNDS {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                String primaryKey = metadata.getPrimaryKey().getName();
+                Query.SelectionQuery select = Query.select( "MIN(" + primaryKey + ")" );
+                return where( metadata, select.and( "MAX(" + primaryKey + ")" ).from( metadata.getTable() ), mask );
+            }
+        },
+        SELECT_RANGE {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                Query.FromQuery from = selectFrom( metadata );
+                Query.WhereQuery where = whereClause( metadata, from, mask );
+                String primaryKey = metadata.getPrimaryKey().getName();
+                where = where == null ? from.where( primaryKey ) : where.and( primaryKey );
+                return where.isBetween( "?", "?" ).toString();
+            }
+        },
+        SELECT_IN {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                String column = metadata.getColumns()[projection[0]].getName();
+                return selectFrom( metadata ).where( column ).isIn( Collections.nCopies( count, "?" ) ).toString();
+            }
+        },
+        PROJECT {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                EntityMetadata.Column[] columns = metadata.getColumns();
+                Query.SelectionQuery select = Query.select( columns[projection[0]].getName() );
+                for ( int index = 1; index < projection.length; index++ ) {
+                    select.and( columns[projection[index]].getName() );
+                }
+                return where( metadata, select.from( metadata.getTable() ), mask );
+            }
+        },
+        DELETE {
+            @Override
+            String generate( EntityMetadata metadata, long[] mask, int count, int[] projection )
+            {
+                return where( metadata, Query.delete().from( metadata.getTable() ), mask );
+            }
+        };
+
+        abstract String generate( EntityMetadata metadata, long[] mask, int count, int[] projection );
+
+        private static Query.FromQuery selectFrom( EntityMetadata metadata )
+        {
+            Query.SelectionQuery select = null;
+            for ( EntityMetadata.Column column : metadata.getColumns() ) {
+                if ( select == null ) {
+                    select = Query.select( column.getName() );
+                } else {
+                    select.and( column.getName() );
+                }
+            }
+            return select.from( metadata.getTable() );
+        }
+
+        private static String where( EntityMetadata metadata, Query.FromQuery from, long[] mask )
+        {
+            Query.WhereQuery where = whereClause( metadata, from, mask );
+            return where == null ? from.toString() : where.toString();
+        }
+
+        /**
+         * @return The <code>WHERE</code> clause matching the columns of the mask, or <code>null</code> if none.
+         */
+        private static Query.WhereQuery whereClause( EntityMetadata metadata, Query.FromQuery from, long[] mask )
+        {
+            Query.WhereQuery where = null;
+            for ( EntityMetadata.Column column : metadata.getColumns() ) {
+                if ( isSet( mask, column ) ) {
+                    where = where == null ? from.where( column.getName() ) : where.and( column.getName() );
+                    where.isEqualTo( "?" );
+                }
+            }
+            return where;
+        }
+
+        /**
+         * @return The primary key, or the first column of entities without primary key.
+         */
+        private static EntityMetadata.Column orderColumn( EntityMetadata metadata )
+        {
+            return metadata.getPrimaryKey() != null ? metadata.getPrimaryKey() : metadata.getColumns()[0];
+        }
+    }
+
+    private static final class Key
+    {
+        private final Class<?> type;
+        private final Kind kind;
+        private final long[] mask;
+        private final int count;
+        private final int[] projection;
+
+        private Key( Class<?> type, Kind kind, long[] mask, int count, int[] projection )
+        {
+            this.type = type;
+            this.kind = kind;
+            this.mask = mask;
+            this.count = count;
+            this.projection = projection;
+        }
+
+        @Override
+        public boolean equals( Object other )
+        {
+            if ( !( other instanceof Key ) ) {
+                return false;
+            }
+            Key key = (Key) other;
+            return type == key.type && kind == key.kind && count == key.count
+                   && Arrays.equals( mask, key.mask ) && Arrays.equals( projection, key.projection );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = 31 * ( 31 * type.hashCode() + kind.hashCode() ) + count;
+            return 31 * ( 31 * hash + Arrays.hashCode( mask ) ) + Arrays.hashCode( projection );
+        }
+    }
+}
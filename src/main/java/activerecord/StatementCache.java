@@ -0,0 +1,271 @@
+package activerecord;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least recently used cache of prepared statements of one connection, keyed by SQL text.
+ *
+ * <p>
+ *   Caching is opt-in: as long as {@link #setMaximumSize(int)} has not been given a positive size, every
+ *   {@linkplain #prepare(Connection, String) prepared} statement is closed when its {@link Lease} is.
+ *   A cached statement is leased to one user at a time; a concurrent or nested use of the same SQL on the same
+ *   connection gets a private statement, closed after use.
+ * </p>
+ * <p>
+ *   Caches live as long as their connection: the shared {@link ActiveRecord#connection} and the connections of a
+ *   {@link ConnectionPool}. Connections borrowed from any other data source are closed after each operation, or
+ *   transaction, so their statements are only reused within it: use a {@link ConnectionPool} for caching to pay off.
+ * </p>
+ */
+final class StatementCache
+{
+    private static final Map<Connection, StatementCache> caches = Collections.synchronizedMap( new IdentityHashMap<Connection, StatementCache>() );
+
+    private static volatile int maximumSize = 0;
+
+    static void setMaximumSize( int size )
+    {
+        if ( size < 0 ) {
+            throw new IllegalArgumentException( "Statement cache size must be positive or zero, got " + size );
+        }
+        maximumSize = size;
+        if ( size == 0 ) {
+            List<StatementCache> discarded;
+            synchronized ( caches ) {
+                discarded = new ArrayList<>( caches.values() );
+                caches.clear();
+            }
+            for ( StatementCache cache : discarded ) {
+                cache.clear();
+            }
+        }
+    }
+
+    static int getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Prepare a statement, from the cache of the given connection if caching is enabled.
+     * @return A lease to close once the statement is no more used, in order to give it back to the cache.
+     */
+    static Lease prepare( Connection connection, String sql )
+        throws SQLException
+    {
+        return prepare( connection, sql, false );
+    }
+
+    /**
+     * Prepare a statement, from the cache of the given connection if caching is enabled.
+     * @param generatedKeys Whether the statement returns the keys generated by the database. A given SQL text must
+     * always be prepared with the same value.
+     * @return A lease to close once the statement is no more used, in order to give it back to the cache.
+     */
+    static Lease prepare( Connection connection, String sql, boolean generatedKeys )
+        throws SQLException
+    {
+        if ( maximumSize == 0 ) {
+            return new Lease( null, null, prepareStatement( connection, sql, generatedKeys ) );
+        }
+        Connection physical = ConnectionPool.physical( connection );
+        return cacheOf( physical ).lease( physical, sql, generatedKeys );
+    }
+
+    private static PreparedStatement prepareStatement( Connection connection, String sql, boolean generatedKeys )
+        throws SQLException
+    {
+        if ( generatedKeys ) {
+            return connection.prepareStatement( sql, Statement.RETURN_GENERATED_KEYS );
+        }
+        return connection.prepareStatement( sql );
+    }
+
+    /**
+     * Close and forget the statements cached for a physical connection about to be closed.
+     */
+    static void discard( Connection connection )
+    {
+        StatementCache cache = caches.remove( connection );
+        if ( cache != null ) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return For each cached SQL text, the number of times its statement was reused, summed over all connections.
+     */
+    static Map<String, Long> reuseCounts()
+    {
+        List<StatementCache> snapshot;
+        synchronized ( caches ) {
+            snapshot = new ArrayList<>( caches.values() );
+        }
+        Map<String, Long> counts = new HashMap<>();
+        for ( StatementCache cache : snapshot ) {
+            synchronized ( cache ) {
+                for ( Map.Entry<String, Entry> entry : cache.entries.entrySet() ) {
+                    Long count = counts.get( entry.getKey() );
+                    counts.put( entry.getKey(), ( count == null ? 0L : count ) + entry.getValue().reuses );
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static StatementCache cacheOf( Connection connection )
+        throws SQLException
+    {
+        synchronized ( caches ) {
+            StatementCache cache = caches.get( connection );
+            if ( cache == null ) {
+                purgeClosedConnections();
+                cache = new StatementCache();
+                caches.put( connection, cache );
+            }
+            return cache;
+        }
+    }
+
+    private static void purgeClosedConnections()
+        throws SQLException
+    {
+        Iterator<Map.Entry<Connection, StatementCache>> iterator = caches.entrySet().iterator();
+        while ( iterator.hasNext() ) {
+            if ( iterator.next().getKey().isClosed() ) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private final Entries entries = new Entries();
+
+    private StatementCache() {}
+
+    private synchronized Lease lease( Connection connection, String sql, boolean generatedKeys )
+        throws SQLException
+    {
+        Entry entry = entries.get( sql );
+        if ( entry == null ) {
+            entry = new Entry( prepareStatement( connection, sql, generatedKeys ) );
+            entries.put( sql, entry );
+        } else if ( entry.leased ) {
+            return new Lease( null, null, prepareStatement( connection, sql, generatedKeys ) );
+        } else {
+            entry.reuses++;
+        }
+        entry.leased = true;
+        return new Lease( this, entry, entry.statement );
+    }
+
+    private synchronized void giveBack( Entry entry )
+        throws SQLException
+    {
+        entry.leased = false;
+        if ( entry.evicted ) {
+            entry.statement.close();
+        } else {
+            entry.statement.clearParameters();
+        }
+    }
+
+    private synchronized void clear()
+    {
+        for ( Entry entry : entries.values() ) {
+            evict( entry );
+        }
+        entries.clear();
+    }
+
+    private static void evict( Entry entry )
+    {
+        entry.evicted = true;
+        if ( !entry.leased ) {
+            try {
+                entry.statement.close();
+            } catch ( SQLException ignored ) {}
+        }
+    }
+
+    /**
+     * Entries in access order, evicting the least recently used one beyond the maximum size.
+     */
+    private static final class Entries
+        extends LinkedHashMap<String, Entry>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private Entries()
+        {
+            super( 16, 0.75f, true );
+        }
+
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, Entry> eldest )
+        {
+            if ( size() <= maximumSize ) {
+                return false;
+            }
+            evict( eldest.getValue() );
+            return true;
+        }
+    }
+
+    private static final class Entry
+    {
+        private final PreparedStatement statement;
+        private boolean leased;
+        private boolean evicted;
+        private long reuses;
+
+        private Entry( PreparedStatement statement )
+        {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * The use of a prepared statement, to close when done with the statement.
+     */
+    static final class Lease
+        implements AutoCloseable
+    {
+        private final StatementCache cache;
+        private final Entry entry;
+        private final PreparedStatement statement;
+
+        private Lease( StatementCache cache, Entry entry, PreparedStatement statement )
+        {
+            this.cache = cache;
+            this.entry = entry;
+            this.statement = statement;
+        }
+
+        PreparedStatement statement()
+        {
+            return statement;
+        }
+
+        @Override
+        public void close()
+            throws SQLException
+        {
+            if ( cache == null ) {
+                statement.close();
+            } else {
+                cache.giveBack( entry );
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package activerecord;
+
+import java.sql.SQLException;
+
+/**
+ * Work to run in a transaction.
+ *
+ * @param <R> Type of the result of the work.
+ * @see ActiveRecord#inTransaction(Transactional)
+ */
+public interface Transactional<R>
+{
+    /**
+     * @return The result of the work, returned by the transaction once committed.
+     * @throws SQLException To roll the transaction back, if the work implies database access that failed.
+     */
+    R execute()
+        throws SQLException;
+}
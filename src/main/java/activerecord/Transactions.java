@@ -0,0 +1,211 @@
+package activerecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transactions bound to the current thread, through the connection of {@link Connections#bind()}.
+ *
+ * <p>
+ *   Caches are shared by every thread, so they must not see uncommitted rows: while a transaction runs, the rows and
+ *   query results it reads or writes are {@linkplain #afterCommit(Runnable) cached once it is committed}, and the
+ *   caches of the classes it wrote are bypassed by its own reads. Active records still write to the current
+ *   {@link Session} as soon as they are saved or deleted. The classes written in a transaction are tracked, so that
+ *   their cached rows and query results, and their loaded instances, are forgotten when the transaction is rolled
+ *   back. The instances saved in a transaction are tracked too: on rollback, their snapshots are restored and the
+ *   primary keys generated by their insertions reset, so that saving them again repeats the rolled back update or
+ *   insertion.
+ * </p>
+ */
+final class Transactions
+{
+    /**
+     * Isolation level meaning the one of the connection is kept.
+     */
+    static final int DEFAULT_ISOLATION = -1;
+
+    private static final Logger logger = LoggerFactory.getLogger( Transactions.class );
+
+    /**
+     * Changes made in the transaction of the current thread, if any.
+     */
+    private static final ThreadLocal<Changes> changes = new ThreadLocal<>();
+
+    private Transactions() {}
+
+    /**
+     * Run the given work in a transaction, or in the transaction of the current thread if any.
+     * @param isolationLevel One of the <code>Connection.TRANSACTION_*</code> levels, or {@link #DEFAULT_ISOLATION}.
+     * Ignored when joining a transaction.
+     * @param readOnly Whether the work does not write, as a hint to the driver. Ignored when joining a transaction.
+     */
+    static <R> R run( int isolationLevel, boolean readOnly, Transactional<R> work )
+        throws SQLException
+    {
+        if ( Connections.bound() != null ) {
+            return work.execute();
+        }
+        if ( Connections.getDataSource() == null ) {
+            throw new IllegalStateException( "Transactions need a data source: the shared connection would run the "
+                                             + "transaction of every thread" );
+        }
+        Connection connection = Connections.bind();
+        Changes current = new Changes();
+        changes.set( current );
+        int previousIsolationLevel = connection.getTransactionIsolation();
+        boolean previousReadOnly = connection.isReadOnly();
+        boolean autoCommit = connection.getAutoCommit();
+        R result;
+        try {
+            if ( isolationLevel != DEFAULT_ISOLATION && isolationLevel != previousIsolationLevel ) {
+                connection.setTransactionIsolation( isolationLevel );
+            }
+            if ( readOnly != previousReadOnly ) {
+                connection.setReadOnly( readOnly );
+            }
+            if ( autoCommit ) {
+                connection.setAutoCommit( false );
+            }
+            result = work.execute();
+            connection.commit();
+        } catch ( Throwable cause ) {
+            try {
+                connection.rollback();
+            } catch ( SQLException suppressed ) {
+                cause.addSuppressed( suppressed );
+            }
+            logger.debug( "Transaction rolled back, forgetting cached instances of {}", current.types );
+            current.restore();
+            forget( current.types );
+            throw cause;
+        } finally {
+            changes.remove();
+            try {
+                if ( autoCommit ) {
+                    connection.setAutoCommit( true );
+                }
+                if ( connection.isReadOnly() != previousReadOnly ) {
+                    connection.setReadOnly( previousReadOnly );
+                }
+                if ( connection.getTransactionIsolation() != previousIsolationLevel ) {
+                    connection.setTransactionIsolation( previousIsolationLevel );
+                }
+            } finally {
+                Connections.unbind();
+            }
+        }
+        current.committed();
+        return result;
+    }
+
+    /**
+     * Track a class whose instances were saved or deleted, in the transaction of the current thread if any.
+     */
+    static void written( Class<?> type )
+    {
+        Changes current = changes.get();
+        if ( current != null ) {
+            current.types.add( type );
+        }
+    }
+
+    /**
+     * @return Whether instances of the given class were saved or deleted in the transaction of the current thread.
+     */
+    static boolean isWritten( Class<?> type )
+    {
+        Changes current = changes.get();
+        return current != null && current.types.contains( type );
+    }
+
+    /**
+     * Run the given refresh of caches once the transaction of the current thread is committed, or now if no transaction
+     * is running. Refreshes are run in order, and never if the transaction is rolled back.
+     */
+    static void afterCommit( Runnable refresh )
+    {
+        Changes current = changes.get();
+        if ( current == null ) {
+            refresh.run();
+        } else {
+            current.refreshes.add( refresh );
+        }
+    }
+
+    /**
+     * Track an instance about to be saved, in the transaction of the current thread if any, with its snapshot as it was
+     * before the transaction.
+     * @param inserting Whether the instance is about to be inserted, so that its primary key is generated.
+     */
+    static void saving( ActiveRecord<?> record, boolean inserting )
+    {
+        Changes current = changes.get();
+        if ( current != null && !current.snapshots.containsKey( record ) ) {
+            current.snapshots.put( record, record.snapshot() );
+            if ( inserting ) {
+                current.inserted.add( record );
+            }
+        }
+    }
+
+    private static void forget( Set<Class<?>> types )
+    {
+        Session session = Session.current();
+        for ( Class<?> type : types ) {
+            EntityMetadata metadata = EntityMetadata.of( type );
+            QueryCache.invalidate( metadata.getTable() );
+            if ( metadata.getCache() != null ) {
+                metadata.getCache().invalidateAll();
+            }
+            if ( session != null ) {
+                session.detachAll( type );
+            }
+        }
+    }
+
+    private static final class Changes
+    {
+        private final Set<Class<?>> types = new HashSet<>();
+        private final Map<ActiveRecord<?>, Object[]> snapshots = new IdentityHashMap<>();
+        private final Set<ActiveRecord<?>> inserted =
+            Collections.newSetFromMap( new IdentityHashMap<ActiveRecord<?>, Boolean>() );
+        private final List<Runnable> refreshes = new ArrayList<>();
+
+        /**
+         * Refresh caches with the committed rows. Query results cached by other threads while the transaction was
+         * running are made obsolete, as they may have been read before the commit.
+         */
+        private void committed()
+        {
+            for ( Class<?> type : types ) {
+                QueryCache.invalidate( EntityMetadata.of( type ).getTable() );
+            }
+            for ( Runnable refresh : refreshes ) {
+                refresh.run();
+            }
+        }
+
+        /**
+         * Bring the saved instances back to their state before the transaction.
+         */
+        private void restore()
+        {
+            for ( Map.Entry<ActiveRecord<?>, Object[]> entry : snapshots.entrySet() ) {
+                entry.getKey().snapshot( entry.getValue() );
+            }
+            for ( ActiveRecord<?> record : inserted ) {
+                EntityMetadata.of( record.getClass() ).getPrimaryKey().set( record, null );
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package activerecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes queued in memory, then flushed together in one transaction.
+ *
+ * <pre>
+ * UnitOfWork work = new UnitOfWork();
+ * group.setName( "renamed" );
+ * work.save( group );
+ * for ( Contact contact : contacts ) {
+ *   contact.setGroupId( group.getId() );
+ *   work.save( contact );
+ * }
+ * work.delete( obsolete );
+ * work.flush();
+ * </pre>
+ * <p>
+ *   Queuing an instance several times keeps only its last operation, and deleting an instance queued for insertion
+ *   cancels the insertion. On {@linkplain #flush() flush}, saves are executed first, by class in order of first
+ *   appearance, then deletes, the tables referencing others by foreign keys before the tables they reference.
+ *   Operations of the same SQL text are sent by JDBC batches, and everything is committed at once, or rolled back.
+ * </p>
+ * <p>
+ *   Primary keys are generated when rows are inserted, during the flush: foreign keys queued in the same unit of work
+ *   cannot reference them. Save the referenced instances first, in the same
+ *   {@linkplain ActiveRecord#inTransaction(Transactional) transaction} as the flush if both must be atomic. As with
+ *   {@link ActiveRecord#saveAll(java.util.Collection)}, generated keys are only written into the inserted instances
+ *   when the driver returns the keys of every row of a batch.
+ * </p>
+ * <p>A unit of work is not thread-safe.</p>
+ */
+public final class UnitOfWork
+{
+    private static final Logger logger = LoggerFactory.getLogger( UnitOfWork.class );
+
+    /**
+     * Upper-cased names of the tables referenced by the foreign keys of each table.
+     */
+    private static final ConcurrentMap<String, Set<String>> referencedTables = new ConcurrentHashMap<>();
+
+    private enum Pending { SAVE, DELETE }
+
+    private final Map<ActiveRecord<?>, Pending> pending = new IdentityHashMap<>();
+    private final List<ActiveRecord<?>> order = new ArrayList<>();
+
+    /**
+     * Queue the insertion or update of an instance.
+     */
+    public void save( ActiveRecord<?> record )
+    {
+        if ( pending.put( record, Pending.SAVE ) == null ) {
+            order.add( record );
+        }
+    }
+
+    /**
+     * Queue the deletion of an instance, or cancel its insertion if it was never saved.
+     */
+    public void delete( ActiveRecord<?> record )
+    {
+        Pending previous = pending.put( record, Pending.DELETE );
+        if ( previous == null ) {
+            order.add( record );
+        } else if ( previous == Pending.SAVE && !record.existInDatabase() ) {
+            pending.remove( record );
+            for ( int index = 0; index < order.size(); index++ ) {
+                if ( order.get( index ) == record ) {
+                    order.remove( index );
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of queued operations.
+     */
+    public int size()
+    {
+        return pending.size();
+    }
+
+    /**
+     * Forget every queued operation.
+     */
+    public void clear()
+    {
+        pending.clear();
+        order.clear();
+    }
+
+    /**
+     * Execute every queued operation in one transaction, then forget them. If a transaction is already running on the
+     * current thread, as with {@link ActiveRecord#inTransaction(Transactional)}, operations join it and are committed
+     * with it.
+     * @throws SQLException This may failed, sorry. The transaction is then rolled back, the operations stay queued, and
+     * primary keys generated by the failed insertions are reset.
+     * @throws IllegalStateException When no {@linkplain ActiveRecord#setDataSource(javax.sql.DataSource) data source}
+     * is set, unless joining a running transaction.
+     */
+    public void flush()
+        throws SQLException
+    {
+        if ( pending.isEmpty() ) {
+            return;
+        }
+        final Map<Class<?>, List<ActiveRecord<?>>> saves = new LinkedHashMap<>();
+        final Map<Class<?>, List<ActiveRecord<?>>> deletes = new LinkedHashMap<>();
+        List<ActiveRecord<?>> inserted = new ArrayList<>();
+        for ( ActiveRecord<?> record : order ) {
+            Pending operation = pending.get( record );
+            if ( operation == Pending.SAVE ) {
+                recordsOf( saves, record ).add( record );
+                if ( !record.existInDatabase() ) {
+                    inserted.add( record );
+                }
+            } else if ( operation == Pending.DELETE ) {
+                recordsOf( deletes, record ).add( record );
+            }
+        }
+        try {
+            ActiveRecord.inTransaction( new Transactional<Void>()
+            {
+                @Override
+                public Void execute()
+                    throws SQLException
+                {
+                    write( saves, deletes );
+                    return null;
+                }
+            } );
+        } catch ( SQLException|RuntimeException cause ) {
+            for ( ActiveRecord<?> record : inserted ) {
+                EntityMetadata.of( record.getClass() ).getPrimaryKey().set( record, null );
+            }
+            throw cause;
+        }
+        clear();
+    }
+
+    /**
+     * Save, then delete, the given instances, on the connection bound to the current thread.
+     */
+    private static void write( Map<Class<?>, List<ActiveRecord<?>>> saves,
+                               Map<Class<?>, List<ActiveRecord<?>>> deletes )
+        throws SQLException
+    {
+        List<ActiveRecord<?>> orderedSaves = new ArrayList<>();
+        for ( List<ActiveRecord<?>> records : saves.values() ) {
+            orderedSaves.addAll( records );
+        }
+        List<Class<?>> childrenFirst = parentsFirst( Connections.bound(), deletes.keySet() );
+        Collections.reverse( childrenFirst );
+        List<ActiveRecord<?>> orderedDeletes = new ArrayList<>();
+        for ( Class<?> type : childrenFirst ) {
+            orderedDeletes.addAll( deletes.get( type ) );
+        }
+        logger.debug( "Flushing {} saves and {} deletes", orderedSaves.size(), orderedDeletes.size() );
+        ActiveRecord.writeAll( orderedSaves, orderedDeletes );
+        ActiveRecord.saved( orderedSaves );
+        for ( ActiveRecord<?> record : orderedDeletes ) {
+            record.deleted();
+        }
+    }
+
+    private static List<ActiveRecord<?>> recordsOf( Map<Class<?>, List<ActiveRecord<?>>> recordsByClass,
+                                                    ActiveRecord<?> record )
+    {
+        List<ActiveRecord<?>> records = recordsByClass.get( record.getClass() );
+        if ( records == null ) {
+            records = new ArrayList<>();
+            recordsByClass.put( record.getClass(), records );
+        }
+        return records;
+    }
+
+    /**
+     * @return The given classes, those of tables referenced by foreign keys before those of tables referencing them.
+     * Classes of tables in a cycle of foreign keys are kept in order of appearance.
+     */
+    private static List<Class<?>> parentsFirst( Connection connection, Set<Class<?>> deleted )
+        throws SQLException
+    {
+        Map<String, Class<?>> types = new LinkedHashMap<>();
+        for ( Class<?> type : deleted ) {
+            types.put( EntityMetadata.of( type ).getTable().toUpperCase( Locale.ROOT ), type );
+        }
+        List<Class<?>> sorted = new ArrayList<>( types.size() );
+        Set<String> visited = new HashSet<>();
+        for ( String table : types.keySet() ) {
+            visit( connection, table, types, visited, sorted );
+        }
+        return sorted;
+    }
+
+    private static void visit( Connection connection, String table, Map<String, Class<?>> types, Set<String> visited,
+                               List<Class<?>> sorted )
+        throws SQLException
+    {
+        if ( !visited.add( table ) ) {
+            return;
+        }
+        String name = EntityMetadata.of( types.get( table ) ).getTable();
+        for ( String referenced : referencedTables( connection, table, name ) ) {
+            if ( types.containsKey( referenced ) ) {
+                visit( connection, referenced, types, visited, sorted );
+            }
+        }
+        sorted.add( types.get( table ) );
+    }
+
+    /**
+     * @param table Upper-cased name of the table.
+     * @param name Name of the table, as declared by its entity.
+     */
+    private static Set<String> referencedTables( Connection connection, String table, String name )
+        throws SQLException
+    {
+        Set<String> referenced = referencedTables.get( table );
+        if ( referenced == null ) {
+            referenced = new HashSet<>();
+            DatabaseMetaData metaData = connection.getMetaData();
+            if ( metaData.storesUpperCaseIdentifiers() ) {
+                name = table;
+            } else if ( metaData.storesLowerCaseIdentifiers() ) {
+                name = name.toLowerCase( Locale.ROOT );
+            }
+            try (ResultSet keys = metaData.getImportedKeys( null, null, name )) {
+                while ( keys.next() ) {
+                    referenced.add( keys.getString( "PKTABLE_NAME" ).toUpperCase( Locale.ROOT ) );
+                }
+            }
+            referenced.remove( table );
+            referencedTables.putIfAbsent( table, referenced );
+        }
+        return referenced;
+    }
+}
@@ -0,0 +1,57 @@
+package activerecord.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The <code>Cached</code> annotation indicates to the framework that the rows of an
+ * active record class may be kept in memory, shared by all threads, and served by
+ * primary key without querying the database.
+ *
+ * <p>It suits small and read-mostly tables, like this one:</p>
+ * <pre>
+ * import activerecord.ActiveRecord;
+ * import activerecord.annotation.Cached;
+ * import activerecord.annotation.PrimaryKey;
+ *
+ * {@literal @}Cached( maximumSize = 500, expireAfterWrite = 10, timeUnit = TimeUnit.MINUTES )
+ * public class Country
+ *     extends ActiveRecord&lt;Country>
+ * {
+ *     {@literal @}PrimaryKey
+ *     private Integer id;
+ *     private String name;
+ * }
+ * </pre>
+ *
+ * <p>
+ *     Rows are cached when read, saved or found by primary key, and evicted when deleted through the
+ *     framework. Rows modified by other means stay stale until they expire. The annotated class
+ *     MUST have a {@link PrimaryKey}.
+ * </p>
+ * @see activerecord.ActiveRecord#getCacheStats(Class) The cache statistics.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Cached
+{
+    /**
+     * Maximum number of cached rows, the least recently used ones being evicted first.
+     */
+    long maximumSize() default 1000;
+
+    /**
+     * Time after which a row is evicted once cached, or 0 to keep it as long as possible.
+     */
+    long expireAfterWrite() default 0;
+
+    /**
+     * Time after which a row is evicted once last read, or 0 to keep it as long as possible.
+     */
+    long expireAfterAccess() default 0;
+
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,41 @@
+package activerecord.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The <code>References</code> annotation indicates to the framework that a field
+ * maps a foreign key column, referencing the {@link PrimaryKey} of another active
+ * record class. It declares a many-to-one relationship, and its inverse one-to-many
+ * relationship, to preload in batch.
+ *
+ * <p>To tag a field as foreign key, just add the annotation like that :</p>
+ * <pre>
+ * import activerecord.ActiveRecord;
+ * import activerecord.annotation.PrimaryKey;
+ * import activerecord.annotation.References;
+ *
+ * public class Contact
+ *     extends ActiveRecord&lt;Contact>
+ * {
+ *     {@literal @}PrimaryKey
+ *     private Integer id;
+ *     {@literal @}References( ContactGroup.class )
+ *     private Integer groupId;  //  This field references the primary key of a ContactGroup
+ * }
+ * </pre>
+ *
+ * @see activerecord.ActiveRecord#preloadReferenced(java.util.Collection, String, Class) The many-to-one preload.
+ * @see activerecord.ActiveRecord#preloadReferencing(java.util.Collection, Class, String) The one-to-many preload.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD})
+public @interface References
+{
+    /**
+     * @return The referenced active record class.
+     */
+    Class<?> value();
+}
@@ -26,6 +26,8 @@ import static org.dbunit.Assertion.assertEquals;
 @Slf4j
 public abstract class AbstractCRUDTestCase
 {
+    protected JdbcDataSource dataSource;
+
     protected Connection connection;
 
     protected IDataSet actualDataSet;
@@ -35,13 +37,13 @@ public abstract class AbstractCRUDTestCase
         throws Exception
     {
         log.debug("Opening database ...");
-        JdbcDataSource h2DataSource = new JdbcDataSource();
-        h2DataSource.setURL("jdbc:h2:mem:test;DB_CLOSE_DELAY=-1");
-        connection = h2DataSource.getConnection();
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test;DB_CLOSE_DELAY=-1");
+        connection = dataSource.getConnection();
         ActiveRecord.connection = connection;
         log.debug("Creating database ...");
         Flyway flyway = new Flyway();
-        flyway.setDataSource(h2DataSource);
+        flyway.setDataSource(dataSource);
         flyway.migrate();
         if (getDataSet() != null) {
             log.debug("Populating database ...");
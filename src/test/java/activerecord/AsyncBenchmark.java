@@ -0,0 +1,111 @@
+package activerecord;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.googlecode.flyway.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare a fan-out of lookups run one after the other, then all at once on the asynchronous executor.
+ *
+ * <p>
+ *   Each statement execution first waits for a simulated network round trip, so that the in-memory database is not
+ *   the bottleneck. Not a test case: run it by hand, optionally giving the number of lookups, the number of threads
+ *   and the round trip in milliseconds as arguments.
+ * </p>
+ */
+public class AsyncBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        int lookups = args.length > 0 ? Integer.parseInt( args[0] ) : 200;
+        int threads = args.length > 1 ? Integer.parseInt( args[1] ) : 16;
+        long roundTripMillis = args.length > 2 ? Long.parseLong( args[2] ) : 2;
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL( "jdbc:h2:mem:async;DB_CLOSE_DELAY=-1;MULTI_THREADED=1" );
+        Flyway flyway = new Flyway();
+        flyway.setDataSource( dataSource );
+        flyway.migrate();
+        ConnectionPool pool = new ConnectionPool( remote( dataSource, DataSource.class, roundTripMillis ), threads, 1,
+                                                  TimeUnit.MINUTES );
+        ActiveRecord.setDataSource( pool );
+        ActiveRecord.setAsyncExecutor( threads, lookups );
+        List<Contact> contacts = new ArrayList<>();
+        for ( int i = 0; i < lookups; i++ ) {
+            Contact contact = new Contact();
+            contact.setLastName( "Contact " + i );
+            contacts.add( contact );
+        }
+        ActiveRecord.insertAll( contacts );
+        for ( int round = 1; round <= ROUNDS; round++ ) {
+            System.out.printf( "Round %d, %d lookups of %d ms on %d threads: find() %d ms, findAsync() %d ms%n", round,
+                               lookups, roundTripMillis, threads, time( contacts, false ), time( contacts, true ) );
+        }
+        pool.close();
+    }
+
+    private static long time( List<Contact> contacts, boolean async )
+        throws Exception
+    {
+        long start = System.nanoTime();
+        List<ListenableFuture<List<Contact>>> futures = new ArrayList<>();
+        for ( Contact contact : contacts ) {
+            Contact sample = new Contact();
+            sample.setId( contact.getId() );
+            if ( async ) {
+                futures.add( sample.findAsync() );
+            } else {
+                sample.find();
+            }
+        }
+        Futures.allAsList( futures ).get();
+        return TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+    }
+
+    /**
+     * @return A proxy of the given data source, connection or statement, whose statements wait for the round trip
+     * before executing.
+     */
+    private static <T> T remote( final T target, Class<T> type, final long roundTripMillis )
+    {
+        Class<?>[] interfaces = { type };
+        return type.cast( Proxy.newProxyInstance( type.getClassLoader(), interfaces, new InvocationHandler()
+        {
+            @Override
+            public Object invoke( Object proxy, Method method, Object[] args )
+                throws Throwable
+            {
+                if ( method.getName().startsWith( "execute" ) ) {
+                    Thread.sleep( roundTripMillis );
+                }
+                Object result;
+                try {
+                    result = method.invoke( target, args );
+                } catch ( InvocationTargetException cause ) {
+                    throw cause.getCause();
+                }
+                if ( result instanceof PreparedStatement ) {
+                    return remote( (PreparedStatement) result, PreparedStatement.class, roundTripMillis );
+                }
+                if ( result instanceof Connection ) {
+                    return remote( (Connection) result, Connection.class, roundTripMillis );
+                }
+                return result;
+            }
+        } ) );
+    }
+}
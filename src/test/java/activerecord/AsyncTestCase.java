@@ -0,0 +1,105 @@
+package activerecord;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class AsyncTestCase
+    extends AbstractCRUDTestCase
+{
+    private ConnectionPool pool;
+
+    @After
+    public void resetAsyncExecutor() {
+        ActiveRecord.setAsyncExecutor(AsyncExecutor.DEFAULT_THREADS, AsyncExecutor.DEFAULT_QUEUE_CAPACITY);
+        ActiveRecord.setDataSource(null);
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void canFindAsynchronously()
+        throws Exception
+    {
+        ActiveRecord.setDataSource(dataSource);
+        Contact first = new Contact();
+        first.setId(1);
+        Contact third = new Contact();
+        third.setId(3);
+        ListenableFuture<List<Contact>> firstContacts = first.findAsync();
+        ListenableFuture<List<Contact>> thirdContacts = third.findAsync();
+        assertThat(firstContacts.get(5, TimeUnit.SECONDS).get(0).getLastName()).isEqualTo("Wallet");
+        assertThat(thirdContacts.get(5, TimeUnit.SECONDS).get(0).getLastName()).isEqualTo("Tell");
+    }
+
+    @Test
+    public void canSaveAndDeleteAsynchronously()
+        throws Exception
+    {
+        ActiveRecord.setDataSource(dataSource);
+        Contact contact = new Contact();
+        contact.setLastName("Newcomer");
+        assertThat(contact.saveAsync().get(5, TimeUnit.SECONDS)).isSameAs(contact);
+        assertThat(contact.getId()).isNotNull();
+        assertThat(new Contact().find()).hasSize(4);
+        contact.deleteAsync().get(5, TimeUnit.SECONDS);
+        assertThat(new Contact().find()).hasSize(3);
+    }
+
+    @Test
+    public void canFailFuture()
+        throws Exception
+    {
+        try {
+            new Contact().deleteAsync().get(5, TimeUnit.SECONDS);
+            throw new AssertionError("Deletion failure expected");
+        } catch (ExecutionException expected) {
+            assertThat(expected.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void canCountQueuedAndInFlightOperations()
+        throws Exception
+    {
+        pool = new ConnectionPool(dataSource, 1, 1, TimeUnit.MINUTES);
+        ActiveRecord.setDataSource(pool);
+        ActiveRecord.setAsyncExecutor(1, 1);
+        Connection borrowed = pool.getConnection();
+        ListenableFuture<List<Contact>> running = new Contact().findAsync();
+        ListenableFuture<List<Contact>> waiting = new Contact().findAsync();
+        try {
+            new Contact().findAsync();
+            throw new AssertionError("Rejection expected");
+        } catch (RejectedExecutionException expected) {
+            // Both the thread and the queue are busy
+        }
+        while (Metrics.getAsyncInFlight() == 0) {
+            Thread.sleep(1);
+        }
+        assertThat(Metrics.getAsyncInFlight()).isEqualTo(1);
+        assertThat(Metrics.getAsyncQueueDepth()).isEqualTo(1);
+        borrowed.close();
+        assertThat(running.get(5, TimeUnit.SECONDS)).hasSize(3);
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).hasSize(3);
+        assertThat(Metrics.getAsyncInFlight()).isEqualTo(0);
+        assertThat(Metrics.getAsyncQueueDepth()).isEqualTo(0);
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
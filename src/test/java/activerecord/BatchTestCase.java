@@ -0,0 +1,112 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class BatchTestCase
+    extends AbstractCRUDTestCase
+{
+    @After
+    public void resetBatchSize() {
+        ActiveRecord.setBatchSize(ActiveRecord.DEFAULT_BATCH_SIZE);
+        ActiveRecord.setMaximumParameters(ActiveRecord.DEFAULT_MAXIMUM_PARAMETERS);
+    }
+
+    @Test
+    public void canSaveAllInBatches()
+        throws Exception
+    {
+        ActiveRecord.setBatchSize(2);
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Contact contact = new Contact();
+            contact.setFirstName("Batch");
+            contact.setLastName("Contact " + i);
+            contacts.add(contact);
+        }
+        Contact sample = new Contact();
+        sample.setId(1);
+        Contact existing = sample.find().get(0);
+        existing.setFirstName("Batch");
+        contacts.add(existing);
+        ActiveRecord.saveAll(contacts);
+        Contact batched = new Contact();
+        batched.setFirstName("Batch");
+        assertThat(batched.find()).hasSize(6);
+        assertThat(new Contact().find()).hasSize(8);
+    }
+
+    @Test
+    public void canReadGeneratedKeysOfBatchedInsertions()
+        throws Exception
+    {
+        ActiveRecord.setBatchSize(1);
+        Contact first = new Contact();
+        first.setLastName("First");
+        Contact second = new Contact();
+        second.setLastName("Second");
+        ActiveRecord.saveAll(Arrays.asList(first, second));
+        assertThat(first.getId()).isNotNull();
+        assertThat(second.getId()).isNotNull().isNotEqualTo(first.getId());
+        Contact sample = new Contact();
+        sample.setId(second.getId());
+        assertThat(sample.find().get(0).getLastName()).isEqualTo("Second");
+    }
+
+    @Test
+    public void canDeleteAllInBatches()
+        throws Exception
+    {
+        Contact wallet = new Contact();
+        wallet.setLastName("Wallet");
+        Contact tell = new Contact();
+        tell.setLastName("Tell");
+        Contact apollinaire = new Contact();
+        apollinaire.setId(2);
+        ActiveRecord.deleteAll(Arrays.asList(wallet, tell, apollinaire));
+        assertThat(new Contact().find()).isEmpty();
+    }
+
+    @Test
+    public void canInsertAllWithMultiRowStatements()
+        throws Exception
+    {
+        ActiveRecord.setMaximumParameters(10);
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Contact contact = new Contact();
+            contact.setFirstName("Bulk");
+            contact.setLastName("Contact " + i);
+            contacts.add(contact);
+        }
+        long insertions = Metrics.of(Contact.class, Operation.INSERT).getCount();
+        ActiveRecord.insertAll(contacts);
+        assertThat(Metrics.of(Contact.class, Operation.INSERT).getCount()).isEqualTo(insertions + 3);
+        Contact bulk = new Contact();
+        bulk.setFirstName("Bulk");
+        assertThat(bulk.find()).hasSize(5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotInsertAllExistingRecords()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setId(1);
+        ActiveRecord.insertAll(sample.find());
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
@@ -0,0 +1,99 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ConnectionPoolTestCase
+    extends AbstractCRUDTestCase
+{
+    private ConnectionPool pool;
+
+    @After
+    public void closePool() {
+        ActiveRecord.setDataSource(null);
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void canReuseGivenBackConnection()
+        throws Exception
+    {
+        pool = new ConnectionPool(dataSource, 2, 1, TimeUnit.MINUTES);
+        Connection first = pool.getConnection();
+        Connection physical = ConnectionPool.physical(first);
+        first.close();
+        assertThat(first.isClosed()).isTrue();
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        Connection second = pool.getConnection();
+        assertThat(ConnectionPool.physical(second)).isSameAs(physical);
+        second.close();
+    }
+
+    @Test(expected = SQLTransientConnectionException.class)
+    public void canBoundBorrowedConnections()
+        throws Exception
+    {
+        pool = new ConnectionPool(dataSource, 1, 1, TimeUnit.MINUTES);
+        pool.setBorrowTimeout(10, TimeUnit.MILLISECONDS);
+        pool.getConnection();
+        pool.getConnection();
+    }
+
+    @Test
+    public void canEvictIdleConnections()
+        throws Exception
+    {
+        pool = new ConnectionPool(dataSource, 2, 0, TimeUnit.MILLISECONDS);
+        Connection connection = pool.getConnection();
+        Connection physical = ConnectionPool.physical(connection);
+        connection.close();
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+        assertThat(physical.isClosed()).isTrue();
+    }
+
+    @Test
+    public void canRollbackPendingTransactionOnGiveBack()
+        throws Exception
+    {
+        pool = new ConnectionPool(dataSource, 1, 1, TimeUnit.MINUTES);
+        Connection connection = pool.getConnection();
+        connection.setAutoCommit(false);
+        connection.createStatement().executeUpdate("DELETE FROM Contact");
+        connection.close();
+        assertThat(new Contact().find()).hasSize(3);
+        Connection next = pool.getConnection();
+        assertThat(next.getAutoCommit()).isTrue();
+        next.close();
+    }
+
+    @Test
+    public void canOperateThroughDataSource()
+        throws Exception
+    {
+        pool = new ConnectionPool(dataSource, 2, 1, TimeUnit.MINUTES);
+        ActiveRecord.setDataSource(pool);
+        Contact sample = new Contact();
+        sample.setFirstName("Guillaume");
+        assertThat(sample.find()).hasSize(3);
+        sample.setLastName("Tell");
+        sample.delete();
+        assertThat(new Contact().find()).hasSize(2);
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
@@ -1,14 +1,17 @@
 package activerecord;
 
 import activerecord.annotation.PrimaryKey;
+import activerecord.annotation.References;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import javax.sql.DataSource;
 import java.sql.SQLException;
 
 @Data
 @EqualsAndHashCode(callSuper = false)
+@ToString(exclude = "group")
 public class Contact
     extends ActiveRecord<Contact>
 {
@@ -17,13 +20,18 @@ public class Contact
     private String firstName;
     private String lastName;
     private String email;
+    @References(ContactGroup.class)
     private Integer groupId;
+    private final transient Reference<ContactGroup> group = Reference.to( ContactGroup.class, this, "groupId" );
 
     public ContactGroup getGroup()
         throws SQLException
     {
-        ContactGroup sample = new ContactGroup();
-        sample.setId( groupId );
-        return sample.find().get( 0 );
+        return group.get();
+    }
+
+    public void setGroup( ContactGroup group )
+    {
+        this.group.set( group );
     }
 }
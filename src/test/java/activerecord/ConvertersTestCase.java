@@ -0,0 +1,108 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ConvertersTestCase
+    extends AbstractCRUDTestCase
+{
+    enum Level { LOW, HIGH }
+
+    static final class Code
+    {
+        final String value;
+
+        Code(String value) {
+            this.value = value;
+        }
+    }
+
+    @Test
+    public void canReadNullNumbers()
+        throws Exception
+    {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT groupId, id FROM Contact WHERE id = 1");
+             ResultSet resultSet = statement.executeQuery()) {
+            assertThat(resultSet.next()).isTrue();
+            assertThat(Converters.of(Integer.class).read(resultSet, 1)).isNull();
+            assertThat(Converters.of(int.class).read(resultSet, 2)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void canConvertEnumsByName()
+        throws Exception
+    {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT CAST(? AS VARCHAR)")) {
+            Converters.bind(statement, Arrays.<Object>asList(Level.HIGH));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertThat(resultSet.next()).isTrue();
+                assertThat(resultSet.getString(1)).isEqualTo("HIGH");
+                assertThat(Converters.of(Level.class).read(resultSet, 1)).isEqualTo(Level.HIGH);
+            }
+        }
+    }
+
+    @Test
+    public void canUseRegisteredConverter()
+        throws Exception
+    {
+        ActiveRecord.registerConverter(Code.class, new ColumnConverter<Code>()
+        {
+            @Override
+            public Code read(ResultSet resultSet, int index)
+                throws SQLException
+            {
+                String value = resultSet.getString(index);
+                return value == null ? null : new Code(value.substring(1));
+            }
+
+            @Override
+            public void bind(PreparedStatement statement, int index, Code value)
+                throws SQLException
+            {
+                statement.setString(index, "#" + value.value);
+            }
+        });
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT CAST(? AS VARCHAR)")) {
+            Converters.bind(statement, Collections.<Object>singletonList(new Code("42")));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertThat(resultSet.next()).isTrue();
+                assertThat(resultSet.getString(1)).isEqualTo("#42");
+                assertThat(Converters.of(Code.class).read(resultSet, 1).value).isEqualTo("42");
+            }
+        }
+    }
+
+    @Test
+    public void canCopyMutableValues() {
+        byte[] bytes = {1, 2, 3};
+        byte[] copiedBytes = (byte[]) Converters.copy(bytes);
+        assertThat(copiedBytes).isNotSameAs(bytes).isEqualTo(bytes);
+        Timestamp timestamp = new Timestamp(1000L);
+        timestamp.setNanos(123456789);
+        Object copiedTimestamp = Converters.copy(timestamp);
+        assertThat(copiedTimestamp).isNotSameAs(timestamp).isEqualTo(timestamp);
+        assertThat(Converters.copy("immutable")).isSameAs("immutable");
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
@@ -0,0 +1,20 @@
+package activerecord;
+
+import activerecord.annotation.Cached;
+import activerecord.annotation.PrimaryKey;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.sql.Timestamp;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Cached(maximumSize = 2)
+public class Country
+    extends ActiveRecord<Country>
+{
+    @PrimaryKey
+    private Integer id;
+    private String name;
+    private Timestamp updatedAt;
+}
@@ -0,0 +1,97 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class CursorTestCase
+    extends AbstractCRUDTestCase
+{
+    private ConnectionPool pool;
+
+    @Before
+    public void usePool() {
+        pool = new ConnectionPool(dataSource, 1, 1, TimeUnit.MINUTES);
+        ActiveRecord.setDataSource(pool);
+        ActiveRecord.setFetchSize(2);
+    }
+
+    @After
+    public void closePool() {
+        ActiveRecord.setFetchSize(0);
+        ActiveRecord.setDataSource(null);
+        pool.close();
+    }
+
+    @Test
+    public void canIterateOverCorrespondingRecords()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setFirstName("Guillaume");
+        List<String> lastNames = new ArrayList<>();
+        try (Cursor<Contact> contacts = sample.iterate()) {
+            for (Contact contact : contacts) {
+                lastNames.add(contact.getLastName());
+            }
+        }
+        assertThat(lastNames).containsOnly("Wallet", "Apollinaire", "Tell");
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void canReleaseConnectionWhenExhausted()
+        throws Exception
+    {
+        Cursor<Contact> contacts = new Contact().iterate();
+        int count = 0;
+        while (contacts.hasNext()) {
+            contacts.next();
+            count++;
+        }
+        assertThat(count).isEqualTo(3);
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void canReleaseConnectionWhenClosedEarly()
+        throws Exception
+    {
+        try (Cursor<Contact> contacts = new Contact().iterate()) {
+            assertThat(contacts.next()).isNotNull();
+            assertThat(pool.getIdleCount()).isEqualTo(0);
+        }
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void canHandleEachCorrespondingRecord()
+        throws Exception
+    {
+        final List<Contact> handled = new ArrayList<>();
+        Contact sample = new Contact();
+        sample.setLastName("Tell");
+        sample.forEach(new RecordHandler<Contact>() {
+            @Override
+            public void handle(Contact contact) {
+                handled.add(contact);
+            }
+        });
+        assertThat(handled).hasSize(1);
+        assertThat(handled.get(0).getEmail()).isEqualTo("tell.guillaume@uri.ch");
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
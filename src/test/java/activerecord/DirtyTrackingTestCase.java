@@ -0,0 +1,118 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class DirtyTrackingTestCase
+    extends AbstractCRUDTestCase
+{
+    private Contact contact;
+
+    @Before
+    public void loadContact()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setId(1);
+        contact = sample.find().get(0);
+        Metrics.reset();
+    }
+
+    @Test
+    public void canSkipSavingUnchangedRecord()
+        throws Exception
+    {
+        contact.save();
+        ActiveRecord.saveAll(Arrays.asList(contact));
+        assertThat(Metrics.of(Contact.class, Operation.UPDATE).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void canUpdateChangedColumnsOnly()
+        throws Exception
+    {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE Contact SET lastName = 'Changed elsewhere' WHERE id = 1");
+        }
+        contact.setEmail("guillaume.wallet@gmail.com");
+        contact.save();
+        assertThat(Metrics.of(Contact.class, Operation.UPDATE).getCount()).isEqualTo(1);
+        Contact sample = new Contact();
+        sample.setId(1);
+        Contact saved = sample.find().get(0);
+        assertThat(saved.getEmail()).isEqualTo("guillaume.wallet@gmail.com");
+        assertThat(saved.getLastName()).isEqualTo("Changed elsewhere");
+    }
+
+    @Test
+    public void canSkipSavingTwice()
+        throws Exception
+    {
+        contact.setEmail("guillaume.wallet@gmail.com");
+        contact.save();
+        contact.save();
+        assertThat(Metrics.of(Contact.class, Operation.UPDATE).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void canUpdateAllColumnsOfUnloadedRecord()
+        throws Exception
+    {
+        Contact detached = new Contact();
+        detached.setId(1);
+        detached.setLastName("Wallet");
+        detached.save();
+        Contact sample = new Contact();
+        sample.setId(1);
+        assertThat(sample.find().get(0).getEmail()).isNull();
+    }
+
+    @Test
+    public void canUpdateValueChangedInPlace()
+        throws Exception
+    {
+        Country country = new Country();
+        country.setName("France");
+        country.setUpdatedAt(new Timestamp(1000L));
+        country.save();
+        try {
+            country.getUpdatedAt().setTime(2000L);
+            country.save();
+            assertThat(updatedAtOf(country)).isEqualTo(new Timestamp(2000L));
+            ActiveRecord.clearCache(Country.class);
+            Country sample = new Country();
+            sample.setId(country.getId());
+            Country found = sample.find().get(0);
+            found.getUpdatedAt().setTime(0L);
+            found.save();
+            assertThat(updatedAtOf(country)).isEqualTo(new Timestamp(0L));
+        } finally {
+            country.delete();
+        }
+    }
+
+    private Timestamp updatedAtOf(Country country)
+        throws Exception
+    {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT updatedAt FROM Country WHERE id = " + country.getId())) {
+            assertThat(resultSet.next()).isTrue();
+            return resultSet.getTimestamp(1);
+        }
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("oneContact.xml");
+    }
+}
@@ -0,0 +1,125 @@
+package activerecord;
+
+import com.google.common.cache.CacheStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class EntityCacheTestCase
+    extends AbstractCRUDTestCase
+{
+    private Country france;
+
+    @Before
+    public void createCountry()
+        throws Exception
+    {
+        france = new Country();
+        france.setName("France");
+        france.save();
+        Metrics.reset();
+    }
+
+    @After
+    public void deleteCountries()
+        throws Exception
+    {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM Country");
+        }
+        ActiveRecord.clearCache(Country.class);
+    }
+
+    @Test
+    public void canFindCachedRowByPrimaryKey()
+        throws Exception
+    {
+        Country sample = new Country();
+        sample.setId(france.getId());
+        CacheStats before = ActiveRecord.getCacheStats(Country.class);
+        Country found = sample.find().get(0);
+        assertThat(found).isEqualTo(france).isNotSameAs(france);
+        assertThat(sample.find().get(0)).isNotSameAs(found);
+        assertThat(Metrics.of(Country.class, Operation.SELECT).getCount()).isEqualTo(0);
+        assertThat(ActiveRecord.getCacheStats(Country.class).minus(before).hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void canRefreshCachedRowOnSave()
+        throws Exception
+    {
+        france.setName("République française");
+        france.save();
+        Country sample = new Country();
+        sample.setId(france.getId());
+        assertThat(sample.find().get(0).getName()).isEqualTo("République française");
+    }
+
+    @Test
+    public void canEvictDeletedRow()
+        throws Exception
+    {
+        Country sample = new Country();
+        sample.setId(france.getId());
+        sample.delete();
+        assertThat(sample.find()).isEmpty();
+        assertThat(Metrics.of(Country.class, Operation.SELECT).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cannotShareMutableValues()
+        throws Exception
+    {
+        france.setUpdatedAt(new Timestamp(1000L));
+        france.save();
+        Country sample = new Country();
+        sample.setId(france.getId());
+        Country found = sample.find().get(0);
+        found.getUpdatedAt().setTime(0L);
+        france.getUpdatedAt().setTime(0L);
+        assertThat(sample.find().get(0).getUpdatedAt()).isEqualTo(new Timestamp(1000L));
+    }
+
+    @Test
+    public void cannotCacheRowReadBeforeWrite()
+        throws Exception
+    {
+        EntityCache cache = EntityMetadata.of(Country.class).getCache();
+        long generation = cache.generation();
+        Country stale = new Country();
+        stale.setId(france.getId());
+        stale.setName(france.getName());
+        france.setName("République française");
+        france.save();
+        cache.putLoaded(stale, generation);
+        Country sample = new Country();
+        sample.setId(france.getId());
+        assertThat(sample.find().get(0).getName()).isEqualTo("République française");
+    }
+
+    @Test
+    public void canEvictLeastRecentlyUsedRows()
+        throws Exception
+    {
+        for (String name : new String[] { "Italia", "España" }) {
+            Country country = new Country();
+            country.setName(name);
+            country.save();
+        }
+        assertThat(ActiveRecord.getCacheStats(Country.class).evictionCount()).isGreaterThan(0);
+        Country sample = new Country();
+        sample.setId(france.getId());
+        assertThat(sample.find().get(0).getName()).isEqualTo("France");
+        assertThat(Metrics.of(Country.class, Operation.SELECT).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cannotGetStatsOfUncachedClass() {
+        assertThat(ActiveRecord.getCacheStats(Contact.class)).isNull();
+    }
+}
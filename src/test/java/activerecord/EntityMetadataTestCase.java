@@ -0,0 +1,31 @@
+package activerecord;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class EntityMetadataTestCase
+{
+    @Test
+    public void canDescribeEntity() {
+        EntityMetadata metadata = EntityMetadata.of(Contact.class);
+        assertThat(metadata.getTable()).isEqualTo("Contact");
+        assertThat(metadata.getColumns()).hasSize(5);
+        assertThat(metadata.getPrimaryKey().getName()).isEqualTo("id");
+        assertThat(metadata.getPrimaryKey().getType()).isEqualTo(Integer.class);
+    }
+
+    @Test
+    public void canShareMetadataOfSameClass() {
+        assertThat(EntityMetadata.of(Contact.class)).isSameAs(EntityMetadata.of(Contact.class));
+    }
+
+    @Test
+    public void canReadAndWriteColumns() {
+        EntityMetadata metadata = EntityMetadata.of(Contact.class);
+        Contact contact = (Contact) metadata.newInstance();
+        metadata.getPrimaryKey().set(contact, 42);
+        assertThat(contact.getId()).isEqualTo(42);
+        assertThat(metadata.getPrimaryKey().get(contact)).isEqualTo(42);
+    }
+}
@@ -0,0 +1,77 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class FindByIdsTestCase
+    extends AbstractCRUDTestCase
+{
+    @After
+    public void resetMaximumParameters() {
+        ActiveRecord.setMaximumParameters(ActiveRecord.DEFAULT_MAXIMUM_PARAMETERS);
+    }
+
+    @Test
+    public void canFindByIdsInGivenOrder()
+        throws Exception
+    {
+        Metrics.reset();
+        Map<Object, Contact> contacts = ActiveRecord.findByIds(Contact.class, Arrays.asList(3, 42, 1, 3, null));
+        assertThat(contacts.keySet().toArray()).isEqualTo(new Object[] {3, 1});
+        assertThat(contacts.get(3).getLastName()).isEqualTo("Tell");
+        assertThat(contacts.get(1).getLastName()).isEqualTo("Wallet");
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void canShareStatementsOfSameBucket()
+        throws Exception
+    {
+        ActiveRecord.findByIds(Contact.class, Arrays.asList(1, 2, 3));
+        long misses = ActiveRecord.getSqlCacheMissCount();
+        Map<Object, Contact> contacts = ActiveRecord.findByIds(Contact.class, Arrays.asList(2, 3, 4, 5));
+        assertThat(contacts.keySet().toArray()).isEqualTo(new Object[] {2, 3});
+        assertThat(ActiveRecord.getSqlCacheMissCount()).isEqualTo(misses);
+    }
+
+    @Test
+    public void canFindByIdsByChunks()
+        throws Exception
+    {
+        ActiveRecord.setMaximumParameters(2);
+        Metrics.reset();
+        Map<Object, Contact> contacts = ActiveRecord.findByIds(Contact.class, Arrays.asList(1, 2, 3));
+        assertThat(contacts.keySet().toArray()).isEqualTo(new Object[] {1, 2, 3});
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void canFindLoadedIdsInSession()
+        throws Exception
+    {
+        try (Session session = Session.open()) {
+            Contact sample = new Contact();
+            sample.setId(2);
+            Contact loaded = sample.find().get(0);
+            Metrics.reset();
+            Map<Object, Contact> contacts = ActiveRecord.findByIds(Contact.class, Arrays.asList(1, 2));
+            assertThat(contacts.get(2)).isSameAs(loaded);
+            assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(1);
+            ActiveRecord.findByIds(Contact.class, Arrays.asList(2, 1));
+            assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(1);
+        }
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
@@ -0,0 +1,70 @@
+package activerecord;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the ways to populate the fields of active records: reflection, method handles and plain setters.
+ *
+ * <p>
+ *   Plain setters stand for the best a generated accessor could do. Not a test case: run it by hand, optionally giving
+ *   the number of instances to populate per round as first argument.
+ * </p>
+ */
+public class HydrationBenchmark
+{
+    private static final int ROUNDS = 10;
+
+    private static final String[] FIELDS = { "id", "firstName", "lastName", "email", "groupId" };
+
+    private static Object sink;
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        int instances = args.length > 0 ? Integer.parseInt( args[0] ) : 1000000;
+        Object[] row = { 42, "Guillaume", "Wallet", "wallet.guillaume@gmail.com", 7 };
+        for ( int round = 1; round <= ROUNDS; round++ ) {
+            System.out.printf( "Round %d, %d instances: reflection %d ms, method handles %d ms, setters %d ms%n", round,
+                               instances, time( accessors( PropertyAccess.REFLECTION ), row, instances ),
+                               time( accessors( PropertyAccess.METHOD_HANDLE ), row, instances ),
+                               time( null, row, instances ) );
+        }
+    }
+
+    private static PropertyAccess.Accessor[] accessors( PropertyAccess access )
+        throws NoSuchFieldException
+    {
+        PropertyAccess.Accessor[] accessors = new PropertyAccess.Accessor[FIELDS.length];
+        for ( int index = 0; index < FIELDS.length; index++ ) {
+            Field field = Contact.class.getDeclaredField( FIELDS[index] );
+            field.setAccessible( true );
+            accessors[index] = access.newAccessor( field );
+        }
+        return accessors;
+    }
+
+    /**
+     * @param accessors The accessors to populate fields with, or <code>null</code> to call setters.
+     */
+    private static long time( PropertyAccess.Accessor[] accessors, Object[] row, int instances )
+    {
+        long start = System.nanoTime();
+        for ( int i = 0; i < instances; i++ ) {
+            Contact contact = new Contact();
+            if ( accessors == null ) {
+                contact.setId( (Integer) row[0] );
+                contact.setFirstName( (String) row[1] );
+                contact.setLastName( (String) row[2] );
+                contact.setEmail( (String) row[3] );
+                contact.setGroupId( (Integer) row[4] );
+            } else {
+                for ( int column = 0; column < accessors.length; column++ ) {
+                    accessors[column].set( contact, row[column] );
+                }
+            }
+            sink = contact;
+        }
+        return TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+    }
+}
@@ -0,0 +1,90 @@
+package activerecord;
+
+import com.googlecode.flyway.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the ways to insert many rows: one statement per row, JDBC batches and multi-row insertions.
+ *
+ * <p>Not a test case: run it by hand, optionally giving the number of rows to insert as first argument.</p>
+ */
+public class InsertionBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        int rows = args.length > 0 ? Integer.parseInt( args[0] ) : 10000;
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL( "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1" );
+        Flyway flyway = new Flyway();
+        flyway.setDataSource( dataSource );
+        flyway.migrate();
+        ActiveRecord.connection = dataSource.getConnection();
+        ActiveRecord.setStatementCacheSize( 16 );
+        for ( int round = 1; round <= ROUNDS; round++ ) {
+            System.out.printf( "Round %d, %d rows: save() %d ms, saveAll() %d ms, insertAll() %d ms%n", round, rows,
+                               time( Strategy.SAVE, rows ), time( Strategy.SAVE_ALL, rows ), time( Strategy.INSERT_ALL, rows ) );
+        }
+    }
+
+    private static long time( Strategy strategy, int rows )
+        throws SQLException
+    {
+        List<Contact> contacts = new ArrayList<>( rows );
+        for ( int i = 0; i < rows; i++ ) {
+            Contact contact = new Contact();
+            contact.setFirstName( "First name " + i );
+            contact.setLastName( "Last name " + i );
+            contact.setEmail( "contact" + i + "@example.com" );
+            contacts.add( contact );
+        }
+        long start = System.nanoTime();
+        strategy.insert( contacts );
+        long elapsed = System.nanoTime() - start;
+        try (Statement statement = ActiveRecord.connection.createStatement()) {
+            statement.executeUpdate( "DELETE FROM Contact" );
+        }
+        return TimeUnit.NANOSECONDS.toMillis( elapsed );
+    }
+
+    private enum Strategy
+    {
+        SAVE {
+            @Override
+            void insert( List<Contact> contacts )
+                throws SQLException
+            {
+                for ( Contact contact : contacts ) {
+                    contact.save();
+                }
+            }
+        },
+        SAVE_ALL {
+            @Override
+            void insert( List<Contact> contacts )
+                throws SQLException
+            {
+                ActiveRecord.saveAll( contacts );
+            }
+        },
+        INSERT_ALL {
+            @Override
+            void insert( List<Contact> contacts )
+                throws SQLException
+            {
+                ActiveRecord.insertAll( contacts );
+            }
+        };
+
+        abstract void insert( List<Contact> contacts )
+            throws SQLException;
+    }
+}
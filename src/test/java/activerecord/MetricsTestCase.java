@@ -0,0 +1,126 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MetricsTestCase
+    extends AbstractCRUDTestCase
+{
+    @Before
+    public void resetMetrics() {
+        Metrics.reset();
+    }
+
+    @Test
+    public void canCountOperationsByEntityAndKind()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setId(1);
+        Contact contact = sample.find().get(0);
+        contact.setEmail("guillaume.wallet@gmail.com");
+        contact.save();
+        contact.delete();
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(1);
+        assertThat(Metrics.of(Contact.class, Operation.UPDATE).getCount()).isEqualTo(1);
+        assertThat(Metrics.of(Contact.class, Operation.DELETE).getCount()).isEqualTo(1);
+        assertThat(Metrics.of(Contact.class, Operation.INSERT).getCount()).isEqualTo(0);
+        assertThat(Metrics.of(ContactGroup.class, Operation.SELECT).getCount()).isEqualTo(0);
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getP99Nanos()).isGreaterThan(0);
+    }
+
+    @Test
+    public void canLeaveHandlingTimeOutOfLatency()
+        throws Exception
+    {
+        new Contact().forEach(new RecordHandler<Contact>() {
+            @Override
+            public void handle(Contact contact) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        OperationMetrics selections = Metrics.of(Contact.class, Operation.SELECT);
+        assertThat(selections.getCount()).isEqualTo(1);
+        assertThat(selections.getMaxNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void canEstimatePercentiles() {
+        OperationMetrics metrics = new OperationMetrics(Contact.class, Operation.SELECT);
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            metrics.record(nanos);
+        }
+        assertThat(metrics.getCount()).isEqualTo(1000);
+        assertThat(metrics.getMeanNanos()).isEqualTo(500);
+        assertThat(metrics.getP50Nanos()).isGreaterThanOrEqualTo(500).isLessThan(570);
+        assertThat(metrics.getP99Nanos()).isGreaterThanOrEqualTo(990).isLessThanOrEqualTo(1000);
+        assertThat(metrics.getMaxNanos()).isEqualTo(1000);
+    }
+
+    @Test
+    public void canPublishMetricsInJmx()
+        throws Exception
+    {
+        Metrics.enableJmx();
+        new ContactGroup().find();
+        OperationMetrics metrics = Metrics.of(ContactGroup.class, Operation.SELECT);
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(Metrics.objectName(metrics))).isTrue();
+    }
+
+    @Test
+    public void canTimeConcurrentOperations()
+        throws Exception
+    {
+        ConnectionPool pool = new ConnectionPool(dataSource, 4, 1, TimeUnit.MINUTES);
+        ActiveRecord.setDataSource(pool);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int task = 0; task < 8; task++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int found = 0;
+                        for (int i = 0; i < 25; i++) {
+                            Contact sample = new Contact();
+                            sample.setFirstName("Guillaume");
+                            found += sample.find().size();
+                        }
+                        return found;
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get()).isEqualTo(75);
+            }
+            assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(200);
+        } finally {
+            executor.shutdown();
+            ActiveRecord.setDataSource(null);
+            pool.close();
+        }
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
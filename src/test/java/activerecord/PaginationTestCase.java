@@ -0,0 +1,58 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PaginationTestCase
+    extends AbstractCRUDTestCase
+{
+    @Test
+    public void canFindPageOfRecords()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setFirstName("Guillaume");
+        List<Contact> firstPage = sample.find(0, 2);
+        assertThat(firstPage).hasSize(2);
+        assertThat(firstPage.get(0).getId()).isEqualTo(1);
+        assertThat(firstPage.get(1).getId()).isEqualTo(2);
+        List<Contact> lastPage = sample.find(2, 2);
+        assertThat(lastPage).hasSize(1);
+        assertThat(lastPage.get(0).getId()).isEqualTo(3);
+        assertThat(sample.find(4, 2)).isEmpty();
+    }
+
+    @Test
+    public void canFindRecordsAfterKey()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        List<Contact> page = sample.findAfter(null, 2);
+        assertThat(page).hasSize(2);
+        page = sample.findAfter(page.get(1).getId(), 2);
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getLastName()).isEqualTo("Tell");
+        assertThat(sample.findAfter(page.get(0).getId(), 2)).isEmpty();
+    }
+
+    @Test
+    public void canFindMatchingRecordsAfterKey()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setLastName("Wallet");
+        assertThat(sample.findAfter(0, 10)).hasSize(1);
+        assertThat(sample.findAfter(1, 10)).isEmpty();
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
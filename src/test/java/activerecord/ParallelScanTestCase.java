@@ -0,0 +1,104 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ParallelScanTestCase
+    extends AbstractCRUDTestCase
+{
+    @Before
+    public void useDataSource() {
+        ActiveRecord.setDataSource(dataSource);
+    }
+
+    @After
+    public void resetDataSource() {
+        ActiveRecord.setDataSource(null);
+    }
+
+    @Test
+    public void canFindInParallelByRanges()
+        throws Exception
+    {
+        Metrics.reset();
+        List<Contact> contacts = new Contact().findParallel(2);
+        assertThat(contacts).hasSize(3);
+        for (int index = 0; index < contacts.size(); index++) {
+            assertThat(contacts.get(index).getId()).isEqualTo(index + 1);
+        }
+        // Bounds, then one query per range
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void canHandleInParallelMatchingRecords()
+        throws Exception
+    {
+        final Set<Integer> ids = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        Contact sample = new Contact();
+        sample.setFirstName("Guillaume");
+        sample.forEachParallel(8, new RecordHandler<Contact>() {
+            @Override
+            public void handle(Contact contact) {
+                ids.add(contact.getId());
+            }
+        });
+        assertThat(ids).containsOnly(1, 2, 3);
+    }
+
+    @Test
+    public void canScanNothing()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setLastName("Nobody");
+        assertThat(sample.findParallel(4)).isEmpty();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotScanWithoutDataSource()
+        throws Exception
+    {
+        ActiveRecord.setDataSource(null);
+        new Contact().findParallel(2);
+    }
+
+    @Test
+    public void canReportFailureOfHandler()
+        throws Exception
+    {
+        try {
+            new Contact().forEachParallel(3, new RecordHandler<Contact>() {
+                @Override
+                public void handle(Contact contact)
+                    throws SQLException
+                {
+                    if (contact.getId() == 2) {
+                        throw new SQLException("Failure expected");
+                    }
+                }
+            });
+            throw new AssertionError("Handler failure expected");
+        } catch (SQLException expected) {
+            assertThat(expected.getMessage()).isEqualTo("Failure expected");
+        }
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
@@ -0,0 +1,88 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PreloadTestCase
+    extends AbstractCRUDTestCase
+{
+    @After
+    public void resetMaximumParameters() {
+        ActiveRecord.setMaximumParameters(ActiveRecord.DEFAULT_MAXIMUM_PARAMETERS);
+    }
+
+    @Test
+    public void canPreloadReferencedRecordsAtOnce()
+        throws Exception
+    {
+        List<Contact> contacts = new Contact().find();
+        Metrics.reset();
+        Map<Object, ContactGroup> groups = ActiveRecord.preloadReferenced(contacts, "groupId", ContactGroup.class);
+        assertThat(groups).hasSize(1);
+        for (Contact contact : contacts) {
+            assertThat(groups.get(contact.getGroupId()).getName()).isEqualTo("mainGroup");
+        }
+        assertThat(Metrics.of(ContactGroup.class, Operation.SELECT).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void canFindPreloadedRecordsInSession()
+        throws Exception
+    {
+        try (Session session = Session.open()) {
+            List<Contact> contacts = new Contact().find();
+            Metrics.reset();
+            Map<Object, ContactGroup> groups = ActiveRecord.preloadReferenced(contacts, "groupId", ContactGroup.class);
+            for (Contact contact : contacts) {
+                assertThat(contact.getGroup()).isSameAs(groups.get(1));
+            }
+            ActiveRecord.preloadReferenced(contacts, "groupId", ContactGroup.class);
+            assertThat(Metrics.of(ContactGroup.class, Operation.SELECT).getCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void canPreloadReferencingRecordsByChunks()
+        throws Exception
+    {
+        ContactGroup empty = new ContactGroup();
+        empty.setName("emptyGroup");
+        empty.save();
+        ContactGroup other = new ContactGroup();
+        other.setName("otherGroup");
+        other.save();
+        ContactGroup sample = new ContactGroup();
+        sample.setId(1);
+        List<ContactGroup> groups = Arrays.asList(sample.find().get(0), empty, other);
+        ActiveRecord.setMaximumParameters(2);
+        Metrics.reset();
+        Map<Object, List<Contact>> contacts = ActiveRecord.preloadReferencing(groups, Contact.class, "groupId");
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(2);
+        assertThat(contacts.get(1)).hasSize(3);
+        assertThat(contacts.get(empty.getId())).isEmpty();
+        assertThat(contacts.get(other.getId())).isEmpty();
+        empty.delete();
+        other.delete();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotPreloadUndeclaredRelationship()
+        throws Exception
+    {
+        ActiveRecord.preloadReferenced(new Contact().find(), "id", ContactGroup.class);
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
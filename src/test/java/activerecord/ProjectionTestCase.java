@@ -0,0 +1,73 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ProjectionTestCase
+    extends AbstractCRUDTestCase
+{
+    @Test
+    public void canSelectSomeColumnsOfRecords()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setLastName("Tell");
+        List<Contact> contacts = sample.select("id", "email");
+        assertThat(contacts).hasSize(1);
+        assertThat(contacts.get(0).getId()).isEqualTo(3);
+        assertThat(contacts.get(0).getEmail()).isEqualTo("tell.guillaume@uri.ch");
+        assertThat(contacts.get(0).getFirstName()).isNull();
+        assertThat(contacts.get(0).getLastName()).isNull();
+    }
+
+    @Test
+    public void canSaveSelectedColumnsOnly()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setLastName("Tell");
+        Contact contact = sample.select("id", "email").get(0);
+        contact.setEmail("guillaume.tell@uri.ch");
+        contact.setFirstName("Wilhelm");
+        contact.save();
+        contact.save();
+        Contact saved = sample.find().get(0);
+        assertThat(saved.getEmail()).isEqualTo("guillaume.tell@uri.ch");
+        assertThat(saved.getFirstName()).isEqualTo("Wilhelm");
+        assertThat(saved.getLastName()).isEqualTo("Tell");
+    }
+
+    @Test
+    public void canSelectValuesOfColumns()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setFirstName("Guillaume");
+        List<Object[]> rows = sample.selectValues("lastName", "id");
+        assertThat(rows).hasSize(3);
+        for (Object[] row : rows) {
+            assertThat(row).hasSize(2);
+            if (row[1].equals(1)) {
+                assertThat(row[0]).isEqualTo("Wallet");
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotSelectUnknownColumn()
+        throws Exception
+    {
+        new Contact().select("phone");
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
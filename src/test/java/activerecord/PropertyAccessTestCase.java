@@ -0,0 +1,34 @@
+package activerecord;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PropertyAccessTestCase
+{
+    @Test
+    public void canReadAndWriteWithEveryStrategy()
+        throws Exception
+    {
+        Field field = Contact.class.getDeclaredField("email");
+        field.setAccessible(true);
+        for (PropertyAccess access : PropertyAccess.values()) {
+            PropertyAccess.Accessor accessor = access.newAccessor(field);
+            Contact contact = new Contact();
+            accessor.set(contact, access + "@example.com");
+            assertThat(contact.getEmail()).isEqualTo(access + "@example.com");
+            assertThat(accessor.get(contact)).isEqualTo(access + "@example.com");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotWriteValueOfWrongType()
+        throws Exception
+    {
+        Field field = Contact.class.getDeclaredField("id");
+        field.setAccessible(true);
+        PropertyAccess.METHOD_HANDLE.newAccessor(field).set(new Contact(), "one");
+    }
+}
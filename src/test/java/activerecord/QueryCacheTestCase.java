@@ -0,0 +1,91 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class QueryCacheTestCase
+    extends AbstractCRUDTestCase
+{
+    @Before
+    public void enableQueryCache() {
+        ActiveRecord.setQueryCache(16, 1, TimeUnit.MINUTES);
+        Metrics.reset();
+    }
+
+    @After
+    public void disableQueryCache() {
+        ActiveRecord.setQueryCache(0, 0, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void canServeSameFindFromCache()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setGroupId(1);
+        List<Contact> first = sample.find();
+        List<Contact> second = sample.find();
+        assertThat(second).isEqualTo(first);
+        assertThat(second.get(0)).isNotSameAs(first.get(0));
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(1);
+        assertThat(ActiveRecord.getQueryCacheStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cannotCorruptCachedResults()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setGroupId(1);
+        List<Contact> first = sample.find();
+        first.get(0).setEmail("corrupted");
+        first.clear();
+        List<Contact> second = sample.find();
+        assertThat(second).hasSize(3);
+        assertThat(second.get(0).getEmail()).isNotEqualTo("corrupted");
+    }
+
+    @Test
+    public void canBoundCachedRows()
+        throws Exception
+    {
+        ActiveRecord.setQueryCache(2, 1, TimeUnit.MINUTES);
+        Contact sample = new Contact();
+        sample.setGroupId(1);
+        assertThat(sample.find()).hasSize(3);
+        assertThat(sample.find()).hasSize(3);
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(2);
+        assertThat(ActiveRecord.getQueryCacheStats().evictionCount()).isGreaterThan(0);
+    }
+
+    @Test
+    public void canInvalidateCachedResultsOnWrite()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setGroupId(1);
+        assertThat(sample.find()).hasSize(3);
+        Contact contact = new Contact();
+        contact.setLastName("Newcomer");
+        contact.setGroupId(1);
+        contact.save();
+        assertThat(sample.find()).hasSize(4);
+        contact.delete();
+        assertThat(sample.find()).hasSize(3);
+        assertThat(Metrics.of(Contact.class, Operation.SELECT).getCount()).isEqualTo(3);
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
@@ -18,6 +18,19 @@ public class QueryTestCase
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    public void canBuildMultiRowInsertOrder() {
+        String actual = Query
+                .insertInto("Contact")
+                .column("firstName").value("?")
+                .column("lastName").value("?")
+                .row().value("?").value("?")
+                .row().value("?").value("?")
+                .toString();
+        String expected = "INSERT INTO Contact (firstName, lastName) VALUES (?, ?), (?, ?), (?, ?)";
+        assertThat(actual).isEqualTo(expected);
+    }
+
     @Test
     public void canBuildSelectOrder() {
         String actual = Query
@@ -33,6 +46,35 @@ public class QueryTestCase
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    public void canBuildPagedSelectOrder() {
+        String actual = Query
+                .select("id")
+                .and("email")
+                .from("Contact")
+                .where("firstName").isEqualTo("?")
+                .orderBy("id")
+                .limit("?")
+                .offset("?")
+                .toString();
+        String expected = "SELECT id, email FROM Contact WHERE firstName = ? ORDER BY id LIMIT ? OFFSET ?";
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void canBuildKeysetSelectOrder() {
+        String actual = Query
+                .select("id")
+                .and("email")
+                .from("Contact")
+                .where("id").isGreaterThan("?")
+                .orderBy("id")
+                .limit("?")
+                .toString();
+        String expected = "SELECT id, email FROM Contact WHERE id > ? ORDER BY id LIMIT ?";
+        assertThat(actual).isEqualTo(expected);
+    }
+
     @Test
     public void canBuildDeleteOrder() {
         String actual = Query.delete()
@@ -48,6 +48,14 @@ public class ReadTestCase
         assertThat(contacts).hasSize(3);
     }
 
+    @Test
+    public void canFindAllRecordsInDB()
+        throws Exception
+    {
+        List<Contact> contacts = new Contact().find();
+        assertThat(contacts).hasSize(3);
+    }
+
     @Override
     protected IDataSet getDataSet()
         throws Exception
@@ -0,0 +1,105 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ReferenceTestCase
+    extends AbstractCRUDTestCase
+{
+    @Test
+    public void canLoadReferenceOnFirstAccessOnly()
+        throws Exception
+    {
+        Metrics.reset();
+        Contact contact = findContact(1);
+        assertThat(Metrics.of(ContactGroup.class, Operation.SELECT).getCount()).isEqualTo(0);
+        ContactGroup group = contact.getGroup();
+        assertThat(group.getName()).isEqualTo("mainGroup");
+        assertThat(contact.getGroup()).isSameAs(group);
+        assertThat(Metrics.of(ContactGroup.class, Operation.SELECT).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void canFollowChangedForeignKey()
+        throws Exception
+    {
+        ContactGroup other = new ContactGroup();
+        other.setName("otherGroup");
+        other.save();
+        Contact contact = findContact(2);
+        assertThat(contact.getGroup().getName()).isEqualTo("mainGroup");
+        contact.setGroupId(other.getId());
+        assertThat(contact.getGroup().getName()).isEqualTo("otherGroup");
+        contact.setGroupId(null);
+        assertThat(contact.getGroup()).isNull();
+        contact.setGroupId(1);
+        contact.save();
+        other.delete();
+    }
+
+    @Test
+    public void canReferenceGivenRecord()
+        throws Exception
+    {
+        ContactGroup other = new ContactGroup();
+        other.setName("otherGroup");
+        other.save();
+        Contact contact = findContact(3);
+        Metrics.reset();
+        contact.setGroup(other);
+        assertThat(contact.getGroupId()).isEqualTo(other.getId());
+        assertThat(contact.getGroup()).isSameAs(other);
+        assertThat(Metrics.of(ContactGroup.class, Operation.SELECT).getCount()).isEqualTo(0);
+        contact.setGroupId(1);
+        other.delete();
+    }
+
+    @Test
+    public void canLoadReferenceOnceAcrossThreads()
+        throws Exception
+    {
+        final Contact contact = findContact(1);
+        Metrics.reset();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ContactGroup>> groups = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            groups.add(executor.submit(new Callable<ContactGroup>() {
+                @Override
+                public ContactGroup call()
+                    throws Exception
+                {
+                    return contact.getGroup();
+                }
+            }));
+        }
+        for (Future<ContactGroup> group : groups) {
+            assertThat(group.get()).isSameAs(groups.get(0).get());
+        }
+        executor.shutdown();
+        assertThat(Metrics.of(ContactGroup.class, Operation.SELECT).getCount()).isEqualTo(1);
+    }
+
+    private Contact findContact(int id)
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setId(id);
+        return sample.find().get(0);
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
@@ -0,0 +1,38 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class RowMapperTestCase
+    extends AbstractCRUDTestCase
+{
+    @Test
+    public void canMapColumnsByLabelWhateverTheirOrder()
+        throws Exception
+    {
+        String query = "SELECT email, 'ignored' AS phone, id AS ID FROM Contact WHERE id = 3";
+        RowMapper<Contact> mapper = RowMapper.entity(EntityMetadata.of(Contact.class));
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            assertThat(resultSet.next()).isTrue();
+            Contact contact = mapper.resolve(query, resultSet).map(resultSet);
+            assertThat(contact.getId()).isEqualTo(3);
+            assertThat(contact.getEmail()).isEqualTo("tell.guillaume@uri.ch");
+            assertThat(contact.getLastName()).isNull();
+        }
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
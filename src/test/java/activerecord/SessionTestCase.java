@@ -0,0 +1,90 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SessionTestCase
+    extends AbstractCRUDTestCase
+{
+    @After
+    public void closeSession() {
+        Session session = Session.current();
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    @Test
+    public void canShareLoadedInstancesInSession()
+        throws Exception
+    {
+        Metrics.reset();
+        try (Session session = Session.open()) {
+            List<Contact> contacts = new Contact().find();
+            assertThat(contacts).hasSize(3);
+            ContactGroup group = contacts.get(0).getGroup();
+            for (Contact contact : contacts) {
+                assertThat(contact.getGroup()).isSameAs(group);
+            }
+            assertThat(Metrics.of(ContactGroup.class, Operation.SELECT).getCount()).isEqualTo(1);
+            assertThat(new Contact().find().get(0)).isSameAs(contacts.get(0));
+            assertThat(session.size()).isEqualTo(4);
+        }
+        assertThat(Session.current()).isNull();
+    }
+
+    @Test
+    public void cannotShareInstancesWithoutSession()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setId(1);
+        assertThat(sample.find().get(0)).isNotSameAs(sample.find().get(0));
+    }
+
+    @Test
+    public void canForgetDeletedInstances()
+        throws Exception
+    {
+        try (Session session = Session.open()) {
+            Contact sample = new Contact();
+            sample.setId(3);
+            Contact contact = sample.find().get(0);
+            assertThat(session.get(Contact.class, 3)).isSameAs(contact);
+            contact.delete();
+            assertThat(session.get(Contact.class, 3)).isNull();
+            assertThat(sample.find()).isEmpty();
+        }
+    }
+
+    @Test
+    public void canKeepInsertedInstances()
+        throws Exception
+    {
+        try (Session session = Session.open()) {
+            Contact contact = new Contact();
+            contact.setLastName("Session");
+            contact.save();
+            assertThat(session.get(Contact.class, contact.getId())).isSameAs(contact);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotOpenNestedSessions() {
+        try (Session session = Session.open()) {
+            Session.open();
+        }
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
@@ -0,0 +1,61 @@
+package activerecord;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SqlTemplatesTestCase
+{
+    private final EntityMetadata metadata = EntityMetadata.of(Contact.class);
+
+    @Test
+    public void canBuildSelectOrderFromMask() {
+        long[] mask = SqlTemplates.newMask(metadata);
+        SqlTemplates.set(mask, metadata.getColumns()[1]);
+        SqlTemplates.set(mask, metadata.getColumns()[4]);
+        String expected = "SELECT id, firstName, lastName, email, groupId FROM Contact WHERE firstName = ? AND groupId = ?";
+        assertThat(SqlTemplates.select(metadata, mask)).isEqualTo(expected);
+    }
+
+    @Test
+    public void canBuildSelectOrderWithoutCriteria() {
+        String expected = "SELECT id, firstName, lastName, email, groupId FROM Contact";
+        assertThat(SqlTemplates.select(metadata, SqlTemplates.newMask(metadata))).isEqualTo(expected);
+    }
+
+    @Test
+    public void canBuildDeleteOrderFromMask() {
+        long[] mask = SqlTemplates.newMask(metadata);
+        SqlTemplates.set(mask, metadata.getPrimaryKey());
+        assertThat(SqlTemplates.delete(metadata, mask)).isEqualTo("DELETE FROM Contact WHERE id = ?");
+    }
+
+    @Test
+    public void canBuildProjectionInRequestedOrder() {
+        long[] mask = SqlTemplates.newMask(metadata);
+        SqlTemplates.set(mask, metadata.getColumns()[1]);
+        String expected = "SELECT email, id FROM Contact WHERE firstName = ?";
+        assertThat(SqlTemplates.project(metadata, metadata.getColumns("EMAIL", "id"), mask)).isEqualTo(expected);
+    }
+
+    @Test
+    public void canBuildUpdateOrderOfChangedColumns() {
+        long[] mask = SqlTemplates.newMask(metadata);
+        SqlTemplates.set(mask, metadata.getColumns()[3]);
+        SqlTemplates.set(mask, metadata.getColumns()[1]);
+        String expected = "UPDATE Contact SET firstName = ?, email = ? WHERE id = ?";
+        assertThat(SqlTemplates.update(metadata, mask)).isEqualTo(expected);
+    }
+
+    @Test
+    public void canReuseGeneratedOrder() {
+        long[] mask = SqlTemplates.newMask(metadata);
+        SqlTemplates.set(mask, metadata.getColumns()[2]);
+        String first = SqlTemplates.select(metadata, mask);
+        long hits = SqlTemplates.hitCount();
+        long[] sameMask = SqlTemplates.newMask(metadata);
+        SqlTemplates.set(sameMask, metadata.getColumns()[2]);
+        assertThat(SqlTemplates.select(metadata, sameMask)).isSameAs(first);
+        assertThat(SqlTemplates.hitCount()).isEqualTo(hits + 1);
+    }
+}
@@ -0,0 +1,62 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class StatementCacheTestCase
+    extends AbstractCRUDTestCase
+{
+    @Before
+    public void enableStatementCache() {
+        ActiveRecord.setStatementCacheSize(2);
+    }
+
+    @After
+    public void disableStatementCache() {
+        ActiveRecord.setStatementCacheSize(0);
+    }
+
+    @Test
+    public void canReuseStatementAcrossFinds()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setLastName("Wallet");
+        assertThat(sample.find()).hasSize(1);
+        sample.setLastName("Tell");
+        assertThat(sample.find()).hasSize(1);
+        sample.setLastName("Apollinaire");
+        assertThat(sample.find()).hasSize(1);
+        String query = "SELECT id, firstName, lastName, email, groupId FROM Contact WHERE lastName = ?";
+        assertThat(ActiveRecord.getStatementReuseCounts().get(query)).isEqualTo(2L);
+    }
+
+    @Test
+    public void canEvictLeastRecentlyUsedStatement()
+        throws Exception
+    {
+        Contact byFirstName = new Contact();
+        byFirstName.setFirstName("Guillaume");
+        Contact byLastName = new Contact();
+        byLastName.setLastName("Tell");
+        Contact byEmail = new Contact();
+        byEmail.setEmail("tell.guillaume@uri.ch");
+        byFirstName.find();
+        byLastName.find();
+        byEmail.find();
+        assertThat(byFirstName.find()).hasSize(3);
+        String query = "SELECT id, firstName, lastName, email, groupId FROM Contact WHERE firstName = ?";
+        assertThat(ActiveRecord.getStatementReuseCounts().get(query)).isEqualTo(0L);
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("someContacts.xml");
+    }
+}
@@ -0,0 +1,274 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class TransactionTestCase
+    extends AbstractCRUDTestCase
+{
+    private ConnectionPool pool;
+
+    @Before
+    public void usePool() {
+        pool = new ConnectionPool(dataSource, 1, 1, TimeUnit.MINUTES);
+        ActiveRecord.setDataSource(pool);
+    }
+
+    @After
+    public void closePool() {
+        ActiveRecord.setDataSource(null);
+        pool.close();
+    }
+
+    @Test
+    public void canCommitTransaction()
+        throws Exception
+    {
+        Integer id = ActiveRecord.inTransaction(new Transactional<Integer>() {
+            @Override
+            public Integer execute()
+                throws SQLException
+            {
+                assertThat(Connections.bound()).isNotNull();
+                assertThat(Connections.bound().getAutoCommit()).isFalse();
+                Contact contact = new Contact();
+                contact.setLastName("Newcomer");
+                contact.save();
+                return contact.getId();
+            }
+        });
+        assertThat(id).isNotNull();
+        assertThat(Connections.bound()).isNull();
+        assertThat(new Contact().find()).hasSize(4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotStartTransactionWithoutDataSource()
+        throws Exception
+    {
+        ActiveRecord.setDataSource(null);
+        ActiveRecord.inTransaction(new Transactional<Void>() {
+            @Override
+            public Void execute() {
+                throw new AssertionError("Refusal expected");
+            }
+        });
+    }
+
+    @Test
+    public void canRollbackTransaction()
+        throws Exception
+    {
+        try {
+            ActiveRecord.inTransaction(new Transactional<Void>() {
+                @Override
+                public Void execute()
+                    throws SQLException
+                {
+                    Contact sample = new Contact();
+                    sample.setGroupId(1);
+                    sample.delete();
+                    assertThat(new Contact().find()).isEmpty();
+                    throw new IllegalStateException("Rollback expected");
+                }
+            });
+            throw new AssertionError("Work failure expected");
+        } catch (IllegalStateException expected) {
+            assertThat(expected.getMessage()).isEqualTo("Rollback expected");
+        }
+        assertThat(Connections.bound()).isNull();
+        assertThat(new Contact().find()).hasSize(3);
+    }
+
+    @Test
+    public void canJoinRunningTransaction()
+        throws Exception
+    {
+        try {
+            ActiveRecord.inTransaction(new Transactional<Void>() {
+                @Override
+                public Void execute()
+                    throws SQLException
+                {
+                    Contact contact = new Contact();
+                    contact.setLastName("Newcomer");
+                    contact.save();
+                    ActiveRecord.inTransaction(new Transactional<Void>() {
+                        @Override
+                        public Void execute()
+                            throws SQLException
+                        {
+                            new ContactGroup().find();
+                            throw new SQLException("Rollback expected");
+                        }
+                    });
+                    return null;
+                }
+            });
+            throw new AssertionError("Work failure expected");
+        } catch (SQLException expected) {
+            assertThat(expected.getMessage()).isEqualTo("Rollback expected");
+        }
+        assertThat(new Contact().find()).hasSize(3);
+    }
+
+    @Test
+    public void canUpdateAgainAfterRollback()
+        throws Exception
+    {
+        Contact sample = new Contact();
+        sample.setId(1);
+        final Contact contact = sample.find().get(0);
+        try {
+            ActiveRecord.inTransaction(new Transactional<Void>() {
+                @Override
+                public Void execute()
+                    throws SQLException
+                {
+                    contact.setEmail("guillaume.wallet@gmail.com");
+                    contact.save();
+                    throw new SQLException("Rollback expected");
+                }
+            });
+            throw new AssertionError("Work failure expected");
+        } catch (SQLException expected) {
+            assertThat(expected.getMessage()).isEqualTo("Rollback expected");
+        }
+        assertThat(sample.find().get(0).getEmail()).isEqualTo("wallet.guillaume@gmail.com");
+        contact.save();
+        assertThat(sample.find().get(0).getEmail()).isEqualTo("guillaume.wallet@gmail.com");
+    }
+
+    @Test
+    public void canInsertAgainAfterRollback()
+        throws Exception
+    {
+        final Contact contact = new Contact();
+        contact.setLastName("Newcomer");
+        try {
+            ActiveRecord.inTransaction(new Transactional<Void>() {
+                @Override
+                public Void execute()
+                    throws SQLException
+                {
+                    contact.save();
+                    assertThat(contact.getId()).isNotNull();
+                    throw new SQLException("Rollback expected");
+                }
+            });
+            throw new AssertionError("Work failure expected");
+        } catch (SQLException expected) {
+            assertThat(expected.getMessage()).isEqualTo("Rollback expected");
+        }
+        assertThat(contact.getId()).isNull();
+        contact.save();
+        assertThat(contact.getId()).isNotNull();
+        assertThat(new Contact().find()).hasSize(4);
+    }
+
+    @Test
+    public void canRestoreIsolationLevelAndReadOnlyHint()
+        throws Exception
+    {
+        int isolationLevel;
+        try (Connection pooled = pool.getConnection()) {
+            isolationLevel = pooled.getTransactionIsolation();
+        }
+        int count = ActiveRecord.inTransaction(Connection.TRANSACTION_SERIALIZABLE, true, new Transactional<Integer>() {
+            @Override
+            public Integer execute()
+                throws SQLException
+            {
+                int level = Connections.bound().getTransactionIsolation();
+                assertThat(level).isEqualTo(Connection.TRANSACTION_SERIALIZABLE);
+                return new Contact().find().size();
+            }
+        });
+        assertThat(count).isEqualTo(3);
+        try (Connection pooled = pool.getConnection()) {
+            assertThat(pooled.getTransactionIsolation()).isEqualTo(isolationLevel);
+            assertThat(pooled.isReadOnly()).isFalse();
+        }
+    }
+
+    @Test
+    public void canForgetCachedRowsOnRollback()
+        throws Exception
+    {
+        final Country country = new Country();
+        country.setName("Switzerland");
+        country.save();
+        try {
+            ActiveRecord.inTransaction(new Transactional<Void>() {
+                @Override
+                public Void execute()
+                    throws SQLException
+                {
+                    country.setName("Helvetia");
+                    country.save();
+                    throw new SQLException("Rollback expected");
+                }
+            });
+            throw new AssertionError("Work failure expected");
+        } catch (SQLException expected) {
+            assertThat(expected.getMessage()).isEqualTo("Rollback expected");
+        }
+        Country sample = new Country();
+        sample.setId(country.getId());
+        assertThat(sample.find().get(0).getName()).isEqualTo("Switzerland");
+        country.delete();
+    }
+
+    @Test
+    public void canCacheRowsOnceCommitted()
+        throws Exception
+    {
+        final EntityCache cache = EntityMetadata.of(Country.class).getCache();
+        final ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        final Country country = new Country();
+        country.setName("Switzerland");
+        try {
+            ActiveRecord.inTransaction(new Transactional<Void>() {
+                @Override
+                public Void execute()
+                    throws SQLException
+                {
+                    country.save();
+                    try {
+                        assertThat(otherThread.submit(new Callable<Object>() {
+                            @Override
+                            public Object call() {
+                                return cache.get(country.getId());
+                            }
+                        }).get()).isNull();
+                    } catch (Exception unexpected) {
+                        throw new AssertionError(unexpected);
+                    }
+                    return null;
+                }
+            });
+            assertThat(cache.get(country.getId())).isEqualTo(country);
+        } finally {
+            otherThread.shutdown();
+        }
+        country.delete();
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
@@ -0,0 +1,125 @@
+package activerecord;
+
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class UnitOfWorkTestCase
+    extends AbstractCRUDTestCase
+{
+    @Before
+    public void useDataSource() {
+        ActiveRecord.setDataSource(dataSource);
+    }
+
+    @After
+    public void resetDataSource() {
+        ActiveRecord.setDataSource(null);
+    }
+
+    @Test
+    public void canFlushQueuedWritesAtOnce()
+        throws Exception
+    {
+        Metrics.reset();
+        Contact sample = new Contact();
+        sample.setId(1);
+        Contact wallet = sample.find().get(0);
+        wallet.setEmail("guillaume.wallet@gmail.com");
+        Contact newcomer = new Contact();
+        newcomer.setLastName("Newcomer");
+        newcomer.setGroupId(1);
+        UnitOfWork work = new UnitOfWork();
+        work.save(newcomer);
+        work.save(wallet);
+        work.save(newcomer);
+        assertThat(work.size()).isEqualTo(2);
+        assertThat(Metrics.of(Contact.class, Operation.INSERT).getCount()).isEqualTo(0);
+        work.flush();
+        assertThat(work.size()).isEqualTo(0);
+        assertThat(newcomer.getId()).isNotNull();
+        assertThat(Metrics.of(Contact.class, Operation.INSERT).getCount()).isEqualTo(1);
+        assertThat(Metrics.of(Contact.class, Operation.UPDATE).getCount()).isEqualTo(1);
+        assertThat(new Contact().find()).hasSize(4);
+    }
+
+    @Test
+    public void canDeleteReferencingRowsFirst()
+        throws Exception
+    {
+        ContactGroup group = new ContactGroup();
+        group.setId(1);
+        Contact sample = new Contact();
+        sample.setGroupId(1);
+        UnitOfWork work = new UnitOfWork();
+        work.delete(group);
+        for (Contact contact : sample.find()) {
+            work.delete(contact);
+        }
+        work.flush();
+        assertThat(new ContactGroup().find()).isEmpty();
+        assertThat(new Contact().find()).isEmpty();
+    }
+
+    @Test
+    public void canCancelInsertionOfDeletedRecord()
+        throws Exception
+    {
+        Contact contact = new Contact();
+        contact.setLastName("Ephemeral");
+        UnitOfWork work = new UnitOfWork();
+        work.save(contact);
+        work.delete(contact);
+        assertThat(work.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void canQueueAgainCancelledInsertion()
+        throws Exception
+    {
+        Contact contact = new Contact();
+        contact.setLastName("Ephemeral");
+        contact.setGroupId(1);
+        UnitOfWork work = new UnitOfWork();
+        work.save(contact);
+        work.delete(contact);
+        work.save(contact);
+        work.flush();
+        assertThat(contact.getId()).isNotNull();
+        assertThat(new Contact().find()).hasSize(4);
+    }
+
+    @Test
+    public void canRollbackFailedFlush()
+        throws Exception
+    {
+        Contact newcomer = new Contact();
+        newcomer.setLastName("Newcomer");
+        Contact orphan = new Contact();
+        orphan.setLastName("Orphan");
+        orphan.setGroupId(42);
+        UnitOfWork work = new UnitOfWork();
+        work.save(newcomer);
+        work.save(orphan);
+        try {
+            work.flush();
+            throw new AssertionError("Foreign key violation expected");
+        } catch (SQLException expected) {
+            assertThat(work.size()).isEqualTo(2);
+            assertThat(newcomer.getId()).isNull();
+            assertThat(new Contact().find()).hasSize(3);
+        }
+    }
+
+    @Override
+    protected IDataSet getDataSet()
+        throws Exception
+    {
+        return loadFlatXmlDataSet("groupOfContacts.xml");
+    }
+}
@@ -3,6 +3,10 @@ package activerecord;
 import org.dbunit.dataset.IDataSet;
 import org.junit.Test;
 
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
 public class UpdateTestCase
     extends AbstractCRUDTestCase
 {
@@ -18,6 +22,25 @@ public class UpdateTestCase
         expectTableContent("contact", "anotherContact.xml");
     }
 
+    @Test
+    public void canUpdateJustInsertedRecord()
+        throws Exception
+    {
+        Contact contact = new Contact();
+        contact.setFirstName("Guillaume");
+        contact.setLastName("Tell");
+        contact.save();
+        assertThat(contact.getId()).isNotNull();
+        contact.setEmail("tell.guillaume@uri.ch");
+        contact.save();
+        Contact sample = new Contact();
+        sample.setLastName("Tell");
+        List<Contact> contacts = sample.find();
+        assertThat(contacts).hasSize(1);
+        assertThat(contacts.get(0).getId()).isEqualTo(contact.getId());
+        assertThat(contacts.get(0).getEmail()).isEqualTo("tell.guillaume@uri.ch");
+    }
+
     @Override
     protected IDataSet getDataSet()
         throws Exception
@@ -0,0 +1,4 @@
+CREATE TABLE Country (
+  id int primary key auto_increment,
+  name varchar(256)
+);
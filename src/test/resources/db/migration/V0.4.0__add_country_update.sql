@@ -0,0 +1,2 @@
+ALTER TABLE Country
+ADD updatedAt timestamp;